@@ -0,0 +1,105 @@
+package bench;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dict.Entry;
+import dict.HashTable;
+
+/**
+ * JMH benchmarks of the batched operations of HashTable against calling the single-key
+ * operation for each key. The table holds size random keys, split into batches of batch keys,
+ * and each operation processes the next batch: a find of every key, or an update that removes
+ * every key and inserts it again. Scores are per batch; divide by batch for the time per key.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchBench {
+
+	@Param({"1000000"})
+	public int size;
+
+	@Param({"16", "256", "4096"})
+	public int batch;
+
+	private Integer[][] batches;
+	private HashTable<Integer, Integer> table;
+	private int cursor;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Random rand = new Random(42);
+		Integer[] keys = new Integer[size];
+		for(int i = 0; i < size; i++) {
+			keys[i] = rand.nextInt(Integer.MAX_VALUE);
+		}
+		batches = new Integer[(size + batch - 1) / batch][];
+		for(int i = 0; i < batches.length; i++) {
+			batches[i] = Arrays.copyOfRange(keys, i * batch, Math.min(size, (i + 1) * batch));
+		}
+		table = new HashTable<Integer, Integer>(size);
+		for(Integer key : keys) {
+			table.insert(key, key);
+		}
+	}
+
+	/**
+	 * Returns the next batch, wrapping at the end.
+	 */
+	private Integer[] next() {
+		int i = cursor;
+		cursor = i + 1 == batches.length ? 0 : i + 1;
+		return batches[i];
+	}
+
+	@Benchmark
+	public int findLooped() {
+		int found = 0;
+		for(Integer key : next()) {
+			if(table.find(key) != null) {
+				found++;
+			}
+		}
+		return found;
+	}
+
+	@Benchmark
+	public Entry<Integer, Integer>[] findBatched() {
+		return table.findAll(next());
+	}
+
+	@Benchmark
+	public void updateLooped() {
+		Integer[] keys = next();
+		for(Integer key : keys) {
+			table.remove(key);
+		}
+		for(Integer key : keys) {
+			table.insert(key, key);
+		}
+	}
+
+	@Benchmark
+	public Entry<Integer, Integer>[] updateBatched() {
+		Integer[] keys = next();
+		table.removeAll(keys);
+		return table.insertAll(keys, keys);
+	}
+}
@@ -0,0 +1,96 @@
+package bench;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+import heap.BinaryHeap;
+import heap.MultiQueue;
+
+/**
+ * JMH benchmark of the concurrent priority queues: MultiQueue, sized for the number of
+ * benchmark threads, against a BinaryHeap behind one lock. The queue starts with PREFILL
+ * random items, and each operation is an insert followed by a removeMin, so the size stays
+ * about the same.
+ *
+ * The score is the total throughput of all threads. It runs on as many threads as there are
+ * processors; pass -t to choose the count, e.g. -Pjmh="ConcurrentHeapBench -t 8".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(Threads.MAX)
+public class ConcurrentHeapBench {
+
+	private static final int PREFILL = 1 << 20;
+
+	@Param({"MultiQueue", "LockedBinaryHeap"})
+	public String impl;
+
+	private Queue queue;
+
+	/**
+	 * The operations the benchmark makes on a queue.
+	 */
+	interface Queue {
+		void insert(Integer item);
+
+		Integer removeMin();
+	}
+
+	@Setup(Level.Trial)
+	public void setUp(BenchmarkParams params) {
+		if(impl.equals("MultiQueue")) {
+			final MultiQueue<Integer> multi = new MultiQueue<Integer>(params.getThreads());
+			queue = new Queue() {
+				public void insert(Integer item) {
+					multi.insert(item);
+				}
+
+				public Integer removeMin() {
+					return multi.removeMin();
+				}
+			};
+		} else if(impl.equals("LockedBinaryHeap")) {
+			final BinaryHeap<Integer> heap = new BinaryHeap<Integer>();
+			queue = new Queue() {
+				public synchronized void insert(Integer item) {
+					heap.insert(item);
+				}
+
+				public synchronized Integer removeMin() {
+					return heap.removeMin();
+				}
+			};
+		} else {
+			throw new IllegalArgumentException("unknown queue " + impl);
+		}
+		Random rand = new Random(42);
+		for(int i = 0; i < PREFILL; i++) {
+			queue.insert(rand.nextInt());
+		}
+	}
+
+	@Benchmark
+	public Integer insertRemoveMin() {
+		queue.insert(ThreadLocalRandom.current().nextInt());
+		return queue.removeMin();
+	}
+}
@@ -0,0 +1,160 @@
+package bench;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bstree.BinarySearchTree;
+import bstree.ConcurrentSkipList;
+import dict.ConcurrentHashTable;
+import dict.HashTable;
+
+/**
+ * JMH benchmark of the thread-safe maps against single-threaded structures behind one lock.
+ * The map starts with size of the keys 0...2 * size - 1, and every benchmark thread accesses
+ * random keys of that range: readPercent percent are finds, and a write inserts its key if a
+ * find does not see it and removes it otherwise, so the map stays about half full.
+ *
+ * The score is the total throughput of all threads. It runs on as many threads as there are
+ * processors; pass -t to choose the count, e.g. -Pjmh="ConcurrentMapBench -t 4", and compare
+ * runs at 1, 2, 4, ... threads to see how each map scales.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(Threads.MAX)
+public class ConcurrentMapBench {
+
+	@Param({"1000000"})
+	public int size;
+
+	@Param({"90", "50"})
+	public int readPercent;
+
+	@Param({"ConcurrentHashTable", "LockedHashTable", "ConcurrentSkipList",
+			"LockedBinarySearchTree"})
+	public String impl;
+
+	private Map map;
+
+	/**
+	 * The operations the benchmark makes on a map.
+	 */
+	interface Map {
+		Object find(Integer key);
+
+		void insert(Integer key);
+
+		void remove(Integer key);
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		if(impl.equals("ConcurrentHashTable")) {
+			final ConcurrentHashTable<Integer, Integer> table =
+					new ConcurrentHashTable<Integer, Integer>(size);
+			map = new Map() {
+				public Object find(Integer key) {
+					return table.find(key);
+				}
+
+				public void insert(Integer key) {
+					table.insert(key, key);
+				}
+
+				public void remove(Integer key) {
+					table.remove(key);
+				}
+			};
+		} else if(impl.equals("LockedHashTable")) {
+			final HashTable<Integer, Integer> table = new HashTable<Integer, Integer>(size);
+			map = new Map() {
+				public synchronized Object find(Integer key) {
+					return table.find(key);
+				}
+
+				public synchronized void insert(Integer key) {
+					table.insert(key, key);
+				}
+
+				public synchronized void remove(Integer key) {
+					table.remove(key);
+				}
+			};
+		} else if(impl.equals("ConcurrentSkipList")) {
+			final ConcurrentSkipList<Integer, Integer> list =
+					new ConcurrentSkipList<Integer, Integer>();
+			map = new Map() {
+				public Object find(Integer key) {
+					return list.find(key);
+				}
+
+				public void insert(Integer key) {
+					list.insert(key, key);
+				}
+
+				public void remove(Integer key) {
+					list.remove(key);
+				}
+			};
+		} else if(impl.equals("LockedBinarySearchTree")) {
+			final BinarySearchTree<Integer, Integer> tree =
+					new BinarySearchTree<Integer, Integer>();
+			map = new Map() {
+				public synchronized Object find(Integer key) {
+					return tree.find(key);
+				}
+
+				public synchronized void insert(Integer key) {
+					tree.insert(key, key);
+				}
+
+				public synchronized void remove(Integer key) {
+					tree.remove(key);
+				}
+			};
+		} else {
+			throw new IllegalArgumentException("unknown map " + impl);
+		}
+		int[] range = new int[2 * size];
+		for(int i = 0; i < range.length; i++) {
+			range[i] = i;
+		}
+		Random rand = new Random(42);
+		for(int i = 0; i < size; i++) { //Insert a random half in random order, so that the
+			int j = i + rand.nextInt(range.length - i); //unbalanced tree stays shallow
+			map.insert(range[j]);
+			range[j] = range[i];
+		}
+	}
+
+	@Benchmark
+	public Object access() {
+		ThreadLocalRandom rand = ThreadLocalRandom.current();
+		Integer key = rand.nextInt(2 * size);
+		if(rand.nextInt(100) < readPercent) {
+			return map.find(key);
+		} else if(map.find(key) == null) {
+			map.insert(key);
+		} else {
+			map.remove(key);
+		}
+		return null;
+	}
+}
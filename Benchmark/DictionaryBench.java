@@ -0,0 +1,75 @@
+package bench;
+import java.io.File;
+import java.io.IOException;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.TearDown;
+
+import dict.Codec;
+import dict.ConcurrentHashTable;
+import dict.Dictionary;
+import dict.HashTable;
+import dict.MappedHashTable;
+import dict.OpenAddressHashTable;
+
+/**
+ * JMH benchmarks of the dictionaries. A read is a find; a write removes the key and inserts
+ * it again. MappedHashTable is kept in a temporary file, which is replaced on every reset and
+ * deleted when the trial ends.
+ */
+public class DictionaryBench extends Workload {
+
+	@Param({"HashTable", "OpenAddressHashTable", "ConcurrentHashTable", "MappedHashTable"})
+	public String impl;
+
+	private Dictionary<Integer, Integer> dict;
+	private File file; //Backing file of the MappedHashTable; null for the others
+
+	void reset() {
+		if(impl.equals("HashTable")) {
+			dict = new HashTable<Integer, Integer>(count);
+		} else if(impl.equals("OpenAddressHashTable")) {
+			dict = new OpenAddressHashTable<Integer, Integer>(count);
+		} else if(impl.equals("ConcurrentHashTable")) {
+			dict = new ConcurrentHashTable<Integer, Integer>(count);
+		} else if(impl.equals("MappedHashTable")) {
+			try {
+				tearDown();
+				file = File.createTempFile("bench", ".dict");
+				file.delete();
+				dict = new MappedHashTable<Integer, Integer>(file, count, Codec.INTEGER,
+						Codec.INTEGER);
+			} catch(IOException e) {
+				throw new IllegalStateException(e);
+			}
+		} else {
+			throw new IllegalArgumentException("unknown dictionary " + impl);
+		}
+	}
+
+	/**
+	 * Closes and deletes the file of a MappedHashTable.
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		if(file != null) {
+			((MappedHashTable<Integer, Integer>)dict).close();
+			file.delete();
+			file = null;
+		}
+	}
+
+	void insert(Integer key) {
+		dict.insert(key, key);
+	}
+
+	int read(Integer key) {
+		return dict.find(key) == null ? 0 : 1;
+	}
+
+	void write(Integer key) {
+		dict.remove(key);
+		dict.insert(key, key);
+	}
+}
@@ -0,0 +1,145 @@
+package bench;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dict.HashStrategy;
+import dict.HashTable;
+
+/**
+ * JMH benchmarks of the hashing strategies of HashTable on several kinds of keys: load fills
+ * a table with size keys, and find looks them up in turn. The legacy strategy is the
+ * compression function HashTable used before strategies were added, kept as a baseline. The
+ * chain lengths each strategy produces are reported by HashTable.stats() rather than here.
+ *
+ * Keys:
+ *   random		uniformly random ints
+ *   sequential	the ints 0...size - 1
+ *   stride1024	multiples of 1024, which share their low bits
+ *   strings	"user:0", "user:1", ...
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HashStrategyBench {
+
+	/**
+	 * ((|a * code| + b) mod p) mod N, with p fixed at 10651 whatever the size of the table and
+	 * N prime.
+	 */
+	static final HashStrategy LEGACY = new HashStrategy() {
+		public HashStrategy.Function create(int minBuckets) {
+			final int buckets = primeAtLeast(Math.max(minBuckets, 2));
+			final int prime = 10651;
+			final int a = (int)(Math.random() * (prime - 1)) + 1;
+			final int b = (int)(Math.random() * prime);
+			return new HashStrategy.Function() {
+				public int buckets() {
+					return buckets;
+				}
+
+				public int index(Object key) {
+					int out = ((Math.abs(a * key.hashCode()) + b) % prime) % buckets;
+					return out < 0 ? out + buckets : out;
+				}
+			};
+		}
+	};
+
+	@Param({"1000000"})
+	public int size;
+
+	@Param({"legacy", "universal", "fibonacci", "siphash"})
+	public String strategy;
+
+	@Param({"random", "sequential", "stride1024", "strings"})
+	public String keySet;
+
+	private Object[] keys;
+	private HashTable<Object, Object> table;
+	private int cursor;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Random rand = new Random(42);
+		keys = new Object[size];
+		for(int i = 0; i < size; i++) {
+			if(keySet.equals("random")) {
+				keys[i] = rand.nextInt(Integer.MAX_VALUE);
+			} else if(keySet.equals("sequential")) {
+				keys[i] = i;
+			} else if(keySet.equals("stride1024")) {
+				keys[i] = i << 10;
+			} else if(keySet.equals("strings")) {
+				keys[i] = "user:" + i;
+			} else {
+				throw new IllegalArgumentException("unknown key set " + keySet);
+			}
+		}
+		load();
+	}
+
+	/**
+	 * Returns the strategy named by the strategy parameter.
+	 */
+	private HashStrategy strategy() {
+		if(strategy.equals("legacy")) {
+			return LEGACY;
+		} else if(strategy.equals("universal")) {
+			return HashStrategy.UNIVERSAL;
+		} else if(strategy.equals("fibonacci")) {
+			return HashStrategy.FIBONACCI;
+		} else if(strategy.equals("siphash")) {
+			return HashStrategy.SIPHASH;
+		}
+		throw new IllegalArgumentException("unknown strategy " + strategy);
+	}
+
+	/**
+	 * Returns the smallest prime that is at least n.
+	 */
+	static int primeAtLeast(int n) {
+		for(;; n++) {
+			boolean prime = n >= 2;
+			for(int i = 2; prime && (long)i * i <= n; i++) {
+				prime = n % i != 0;
+			}
+			if(prime) {
+				return n;
+			}
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public HashTable<Object, Object> load() {
+		table = new HashTable<Object, Object>(size, 1, strategy());
+		for(int i = 0; i < size; i++) {
+			table.insert(keys[i], keys[i]);
+		}
+		return table;
+	}
+
+	@Benchmark
+	public Object find() {
+		int i = cursor;
+		cursor = i + 1 == size ? 0 : i + 1;
+		return table.find(keys[i]);
+	}
+}
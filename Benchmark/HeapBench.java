@@ -0,0 +1,103 @@
+package bench;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+
+import heap.BinaryHeap;
+import heap.BinomialHeap;
+import heap.DaryHeap;
+import heap.Heap;
+import heap.IndexedHeap;
+import heap.LongPriorityHeap;
+import heap.PairingHeap;
+
+/**
+ * JMH benchmarks of the priority queues. A read is min(); a write is removeMin() followed by
+ * an insert of the accessed key, so -p readPercent=0 measures insert/removeMin pairs on a
+ * heap of steady size. DaryHeap is run at arities of 2, 4, 8 and 16, and LongPriorityHeap
+ * with each item as its own priority.
+ *
+ * The sort benchmark fills an empty heap with size items and drains it; subtracting load
+ * gives the time spent in removeMin.
+ */
+public class HeapBench extends Workload {
+
+	@Param({"BinaryHeap", "IndexedHeap", "DaryHeap2", "DaryHeap4", "DaryHeap8", "DaryHeap16",
+			"PairingHeap", "BinomialHeap", "LongPriorityHeap"})
+	public String impl;
+
+	private Heap<Integer> heap;
+
+	void reset() {
+		if(impl.equals("BinaryHeap")) {
+			heap = new BinaryHeap<Integer>(count, null);
+		} else if(impl.equals("IndexedHeap")) {
+			heap = new IndexedHeap<Integer>(count, null);
+		} else if(impl.startsWith("DaryHeap")) {
+			heap = new DaryHeap<Integer>(Integer.parseInt(impl.substring("DaryHeap".length())),
+					count, null);
+		} else if(impl.equals("PairingHeap")) {
+			heap = new PairingHeap<Integer>();
+		} else if(impl.equals("BinomialHeap")) {
+			heap = new BinomialHeap<Integer>();
+		} else if(impl.equals("LongPriorityHeap")) {
+			final LongPriorityHeap<Integer> longHeap = new LongPriorityHeap<Integer>(count);
+			heap = new Heap<Integer>() {
+				public int size() {
+					return longHeap.size();
+				}
+
+				public boolean isEmpty() {
+					return longHeap.size() == 0;
+				}
+
+				public void insert(Integer item) {
+					longHeap.insert(item, item);
+				}
+
+				public Integer min() {
+					return longHeap.min();
+				}
+
+				public Integer removeMin() {
+					return longHeap.removeMin();
+				}
+
+				public void makeEmpty() {
+					longHeap.makeEmpty();
+				}
+			};
+		} else {
+			throw new IllegalArgumentException("unknown heap " + impl);
+		}
+	}
+
+	void insert(Integer key) {
+		heap.insert(key);
+	}
+
+	int read(Integer key) {
+		return heap.min();
+	}
+
+	void write(Integer key) {
+		heap.removeMin();
+		heap.insert(key);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public long sort() {
+		load();
+		long sum = 0;
+		while(!heap.isEmpty()) {
+			sum += heap.removeMin();
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,91 @@
+package bench;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import heap.BinaryHeap;
+
+/**
+ * JMH benchmark comparing building a BinaryHeap of size random items from an array, which
+ * heapifies bottom-up in O(n) time, with inserting them one at a time. Alongside the time,
+ * each reports the comparisons it made and the items it built as the secondary results
+ * comparisons and items. JMH sums both over the measured iterations, so their ratio is the
+ * number of comparisons per item.
+ * Builds of 100M items need a heap of about 8GB: -Pjmh="HeapBuildBench -p size=100000000
+ * -jvmArgs -Xmx8g".
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class HeapBuildBench {
+
+	@Param({"1000", "100000", "1000000"})
+	public int size;
+
+	private Integer[] items;
+	private Comparator<Integer> counting;
+	private long comparisons;
+
+	/**
+	 * Comparisons made and items built.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Counters {
+		public long comparisons;
+		public long items;
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Random rand = new Random(42);
+		items = new Integer[size];
+		for(int i = 0; i < size; i++) {
+			items[i] = rand.nextInt();
+		}
+		counting = new Comparator<Integer>() {
+			public int compare(Integer a, Integer b) {
+				comparisons++;
+				return a.compareTo(b);
+			}
+		};
+	}
+
+	@Benchmark
+	public BinaryHeap<Integer> heapify(Counters counters) {
+		comparisons = 0;
+		BinaryHeap<Integer> heap = new BinaryHeap<Integer>(items, counting);
+		counters.comparisons += comparisons;
+		counters.items += size;
+		return heap;
+	}
+
+	@Benchmark
+	public BinaryHeap<Integer> inserts(Counters counters) {
+		comparisons = 0;
+		BinaryHeap<Integer> heap = new BinaryHeap<Integer>(size, counting);
+		for(int i = 0; i < size; i++) {
+			heap.insert(items[i]);
+		}
+		counters.comparisons += comparisons;
+		counters.items += size;
+		return heap;
+	}
+}
@@ -0,0 +1,87 @@
+package bench;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import heap.BinaryHeap;
+import heap.BinomialHeap;
+import heap.DaryHeap;
+import heap.Heap;
+import heap.PairingHeap;
+
+/**
+ * JMH benchmark of melding two heaps of size random items each. Each measured iteration melds
+ * one freshly filled pair. DaryHeap has no fast path of its own, so it shows the cost of the
+ * default meld, which drains the other heap.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 20)
+@Fork(1)
+public class MeldBench {
+
+	@Param({"1000", "100000", "1000000"})
+	public int size;
+
+	@Param({"BinaryHeap", "PairingHeap", "BinomialHeap", "DaryHeap4"})
+	public String impl;
+
+	private Integer[] items;
+	private Heap<Integer> a;
+	private Heap<Integer> b;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Random rand = new Random(42);
+		items = new Integer[2 * size];
+		for(int i = 0; i < items.length; i++) {
+			items[i] = rand.nextInt();
+		}
+	}
+
+	@Setup(Level.Iteration)
+	public void fill() {
+		a = create();
+		b = create();
+		for(int i = 0; i < size; i++) {
+			a.insert(items[i]);
+			b.insert(items[size + i]);
+		}
+	}
+
+	/**
+	 * Returns a new empty heap of the kind being measured.
+	 */
+	private Heap<Integer> create() {
+		if(impl.equals("BinaryHeap")) {
+			return new BinaryHeap<Integer>();
+		} else if(impl.equals("PairingHeap")) {
+			return new PairingHeap<Integer>();
+		} else if(impl.equals("BinomialHeap")) {
+			return new BinomialHeap<Integer>();
+		} else if(impl.equals("DaryHeap4")) {
+			return new DaryHeap<Integer>(4);
+		}
+		throw new IllegalArgumentException("unknown heap " + impl);
+	}
+
+	@Benchmark
+	public Heap<Integer> meld() {
+		a.meld(b);
+		return a;
+	}
+}
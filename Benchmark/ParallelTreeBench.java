@@ -0,0 +1,119 @@
+package bench;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bstree.BinarySearchTree;
+
+/**
+ * JMH benchmarks of the parallel bulk operations of BinarySearchTree on a balanced tree of
+ * size entries built with fromSorted: a sum through parallelStream(), a parallel forEach and
+ * a map into a new tree. Each runs inside a fork/join pool of the given number of threads, so
+ * comparing the scores across threads gives the speedup. Trees of 50M entries need about 8GB
+ * of heap: -Pjmh="ParallelTreeBench -p size=50000000 -jvmArgs -Xmx8g".
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelTreeBench {
+
+	@Param({"1000000"})
+	public int size;
+
+	@Param({"1", "2", "4", "8"})
+	public int threads;
+
+	private ForkJoinPool pool;
+	private BinarySearchTree<Integer, Integer> tree;
+	private long[] out;
+	private Callable<Long> sum;
+	private Callable<long[]> forEach;
+	private Callable<BinarySearchTree<Integer, Long>> map;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Integer[] keys = new Integer[size];
+		for(int i = 0; i < size; i++) {
+			keys[i] = i;
+		}
+		tree = BinarySearchTree.fromSorted(keys, keys);
+		out = new long[size];
+		pool = new ForkJoinPool(threads);
+		sum = new Callable<Long>() {
+			public Long call() {
+				return tree.parallelStream().mapToLong(new ToLongFunction<Integer>() {
+					public long applyAsLong(Integer value) {
+						return value;
+					}
+				}).sum();
+			}
+		};
+		forEach = new Callable<long[]>() {
+			public long[] call() {
+				tree.parallelStream().forEach(new Consumer<Integer>() {
+					public void accept(Integer value) {
+						out[value] = mix(value);
+					}
+				});
+				return out;
+			}
+		};
+		map = new Callable<BinarySearchTree<Integer, Long>>() {
+			public BinarySearchTree<Integer, Long> call() {
+				return tree.map(new Function<Integer, Long>() {
+					public Long apply(Integer value) {
+						return mix(value);
+					}
+				});
+			}
+		};
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		pool.shutdown();
+	}
+
+	/**
+	 * A few cycles of work per entry, so that the operations are not purely memory-bound.
+	 */
+	static long mix(long x) {
+		x *= 0x9e3779b97f4a7c15L;
+		return x ^ (x >>> 29);
+	}
+
+	@Benchmark
+	public Long sum() throws Exception {
+		return pool.submit(sum).get(); //Tasks forked inside run in this pool
+	}
+
+	@Benchmark
+	public long[] forEach() throws Exception {
+		return pool.submit(forEach).get();
+	}
+
+	@Benchmark
+	public BinarySearchTree<Integer, Long> map() throws Exception {
+		return pool.submit(map).get();
+	}
+}
@@ -0,0 +1,115 @@
+package bench;
+import org.openjdk.jmh.annotations.Param;
+
+import dict.HashTable;
+import dict.IntObjectHashTable;
+import dict.LongLongHashTable;
+import dict.LongObjectHashTable;
+
+/**
+ * JMH benchmarks of the primitive-keyed hash tables, against a HashTable of boxed Longs. A
+ * read is a get; a write removes the key and puts it again.
+ *
+ * Each table is sized for count entries when it is created, so the memory the load benchmark
+ * allocates is about what the table holds. Run it with -Pjmh="PrimitiveTableBench.load -prof
+ * gc" and divide gc.alloc.rate.norm by size for the bytes per entry. The boxed keys of the
+ * HashTable are allocated during the load, so they are counted as well.
+ */
+public class PrimitiveTableBench extends Workload {
+
+	@Param({"HashTable", "IntObjectHashTable", "LongObjectHashTable", "LongLongHashTable"})
+	public String impl;
+
+	private Table table;
+
+	/**
+	 * The operations the benchmarks make on a table, so that tables with different key types
+	 * can share them.
+	 */
+	interface Table {
+		void put(int key);
+
+		int get(int key);
+
+		void remove(int key);
+	}
+
+	void reset() {
+		if(impl.equals("HashTable")) {
+			final HashTable<Long, Long> boxed = new HashTable<Long, Long>(count);
+			table = new Table() {
+				public void put(int key) {
+					boxed.insert((long)key, (long)key);
+				}
+
+				public int get(int key) {
+					return boxed.find((long)key) == null ? 0 : 1;
+				}
+
+				public void remove(int key) {
+					boxed.remove((long)key);
+				}
+			};
+		} else if(impl.equals("IntObjectHashTable")) {
+			final IntObjectHashTable<Integer> ints = new IntObjectHashTable<Integer>(count);
+			table = new Table() {
+				public void put(int key) {
+					ints.put(key, keys[key]);
+				}
+
+				public int get(int key) {
+					return ints.get(key) == null ? 0 : 1;
+				}
+
+				public void remove(int key) {
+					ints.remove(key);
+				}
+			};
+		} else if(impl.equals("LongObjectHashTable")) {
+			final LongObjectHashTable<Integer> longs = new LongObjectHashTable<Integer>(count);
+			table = new Table() {
+				public void put(int key) {
+					longs.put(key, keys[key]);
+				}
+
+				public int get(int key) {
+					return longs.get(key) == null ? 0 : 1;
+				}
+
+				public void remove(int key) {
+					longs.remove(key);
+				}
+			};
+		} else if(impl.equals("LongLongHashTable")) {
+			final LongLongHashTable longLongs = new LongLongHashTable(count, -1);
+			table = new Table() {
+				public void put(int key) {
+					longLongs.put(key, key);
+				}
+
+				public int get(int key) {
+					return longLongs.get(key) < 0 ? 0 : 1;
+				}
+
+				public void remove(int key) {
+					longLongs.remove(key);
+				}
+			};
+		} else {
+			throw new IllegalArgumentException("unknown table " + impl);
+		}
+	}
+
+	void insert(Integer key) {
+		table.put(key);
+	}
+
+	int read(Integer key) {
+		return table.get(key);
+	}
+
+	void write(Integer key) {
+		table.remove(key);
+		table.put(key);
+	}
+}
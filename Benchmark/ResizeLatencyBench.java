@@ -0,0 +1,78 @@
+package bench;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dict.Entry;
+import dict.HashTable;
+
+/**
+ * JMH benchmark of the latency of single inserts into a HashTable that starts small and
+ * resizes repeatedly as it grows to size entries, then starts over with a new table. With a
+ * full rehash, the insert that triggers a resize moves every entry; with an incremental
+ * rehash, the work is spread over the following operations. Sampling the time of each insert
+ * shows the difference in the high percentiles and the maximum rather than in the mean.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResizeLatencyBench {
+
+	@Param({"1000000"})
+	public int size;
+
+	@Param({"full", "incremental"})
+	public String rehash;
+
+	private Integer[] keys;
+	private HashTable<Integer, Integer> table;
+	private int cursor;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Random rand = new Random(42);
+		keys = new Integer[size];
+		for(int i = 0; i < size; i++) {
+			keys[i] = rand.nextInt(Integer.MAX_VALUE);
+		}
+		reset();
+	}
+
+	/**
+	 * Replaces the table with a new one of the default size.
+	 */
+	private void reset() {
+		if(rehash.equals("full")) {
+			table = new HashTable<Integer, Integer>(70, Integer.MAX_VALUE);
+		} else if(rehash.equals("incremental")) {
+			table = new HashTable<Integer, Integer>(70, 1);
+		} else {
+			throw new IllegalArgumentException("unknown rehash " + rehash);
+		}
+		cursor = 0;
+	}
+
+	@Benchmark
+	public Entry<Integer, Integer> insert() {
+		if(cursor == size) {
+			reset();
+		}
+		Integer key = keys[cursor++];
+		return table.insert(key, key);
+	}
+}
@@ -0,0 +1,100 @@
+package bench;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bstree.AVLTree;
+import bstree.PersistentTree;
+
+/**
+ * JMH benchmark of taking consistent snapshots of a tree of size entries while it is updated.
+ * Each operation removes a key and inserts it again, and every interval-th operation also
+ * takes a snapshot, so the score is the time per update with the cost of the snapshots spread
+ * over the updates between them.
+ *
+ * PersistentTree takes a snapshot in O(1) time and pays for path copying on every update.
+ * AVLTreeCopyOnRead updates an AVLTree in place and copies it out through inOrder() for each
+ * snapshot, in O(size) time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnapshotBench {
+
+	@Param({"1000", "100000", "1000000"})
+	public int size;
+
+	@Param({"100", "1000", "10000"})
+	public int interval;
+
+	@Param({"PersistentTree", "AVLTreeCopyOnRead"})
+	public String impl;
+
+	private Integer[] keys; //The keys 0...size - 1 in random order
+	private PersistentTree<Integer, Integer> persistent;
+	private AVLTree<Integer, Integer> avl;
+	private int cursor;
+	private int untilSnapshot;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Random rand = new Random(42);
+		keys = new Integer[size];
+		for(int i = 0; i < size; i++) {
+			keys[i] = i;
+		}
+		for(int i = size - 1; i > 0; i--) { //Fisher-Yates shuffle
+			int j = rand.nextInt(i + 1);
+			Integer temp = keys[i];
+			keys[i] = keys[j];
+			keys[j] = temp;
+		}
+		if(impl.equals("PersistentTree")) {
+			persistent = new PersistentTree<Integer, Integer>();
+			for(Integer key : keys) {
+				persistent.insert(key, key);
+			}
+		} else if(impl.equals("AVLTreeCopyOnRead")) {
+			avl = new AVLTree<Integer, Integer>();
+			for(Integer key : keys) {
+				avl.insert(key, key);
+			}
+		} else {
+			throw new IllegalArgumentException("unknown tree " + impl);
+		}
+		untilSnapshot = interval;
+	}
+
+	@Benchmark
+	public Object update() {
+		Integer key = keys[cursor];
+		cursor = cursor + 1 == size ? 0 : cursor + 1;
+		boolean snapshot = --untilSnapshot == 0;
+		if(snapshot) {
+			untilSnapshot = interval;
+		}
+		if(persistent != null) {
+			persistent.remove(key);
+			persistent.insert(key, key);
+			return snapshot ? persistent.snapshot() : null;
+		}
+		avl.remove(key);
+		avl.insert(key, key);
+		return snapshot ? avl.inOrder() : null;
+	}
+}
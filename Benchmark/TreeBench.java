@@ -0,0 +1,202 @@
+package bench;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+
+import bstree.AVLTree;
+import bstree.BPlusTree;
+import bstree.BinarySearchTree;
+import bstree.ConcurrentSkipList;
+import bstree.LongObjectAVLTree;
+import bstree.PersistentTree;
+
+/**
+ * JMH benchmarks of the search trees. A read is a find; a write removes the key and inserts
+ * it again. The unbalanced BinarySearchTree degenerates into a list under sorted input, so
+ * that combination is run with at most UNBALANCED_SORTED_LIMIT keys whatever the size, rather
+ * than for quadratic time. BPlusTree is run at fanouts of 16, 64 and 256.
+ *
+ * The find benchmark times one lookup of the access stream on its own. Run it with
+ * -Pjmh="TreeBench.find -prof gc" to also report the bytes allocated per lookup as
+ * gc.alloc.rate.norm, which is 0 for trees whose find allocates nothing. The scan benchmark
+ * times one in-order pass over every value; divide by size for the time per entry.
+ */
+public class TreeBench extends Workload {
+
+	private static final int UNBALANCED_SORTED_LIMIT = 5000;
+
+	@Param({"BinarySearchTree", "AVLTree", "AVLTreeComparator", "LongObjectAVLTree",
+			"PersistentTree", "BPlusTree16", "BPlusTree64", "BPlusTree256", "ConcurrentSkipList"})
+	public String impl;
+
+	private Tree tree;
+
+	/**
+	 * The operations the benchmarks make on a tree, so that trees with different key types can
+	 * share them. Iterating visits the values in key order.
+	 */
+	interface Tree extends Iterable<Integer> {
+		void insert(Integer key);
+
+		Object find(Integer key);
+
+		void remove(Integer key);
+	}
+
+	int cap(int size) {
+		if(impl.equals("BinarySearchTree") && distribution.equals("sorted")) {
+			return Math.min(size, UNBALANCED_SORTED_LIMIT);
+		}
+		return size;
+	}
+
+	void reset() {
+		if(impl.equals("BinarySearchTree")) {
+			tree = adapt(new BinarySearchTree<Integer, Integer>());
+		} else if(impl.equals("AVLTree")) {
+			tree = adapt(new AVLTree<Integer, Integer>());
+		} else if(impl.equals("AVLTreeComparator")) {
+			tree = adapt(new AVLTree<Integer, Integer>(new Comparator<Integer>() {
+				public int compare(Integer a, Integer b) {
+					return a.compareTo(b);
+				}
+			}));
+		} else if(impl.equals("LongObjectAVLTree")) {
+			final LongObjectAVLTree<Integer> longTree = new LongObjectAVLTree<Integer>();
+			tree = new Tree() {
+				public void insert(Integer key) {
+					longTree.insert(key, key);
+				}
+
+				public Object find(Integer key) {
+					return longTree.find(key);
+				}
+
+				public void remove(Integer key) {
+					longTree.remove(key);
+				}
+
+				public Iterator<Integer> iterator() {
+					return longTree.iterator();
+				}
+			};
+		} else if(impl.equals("PersistentTree")) {
+			final PersistentTree<Integer, Integer> persistent =
+					new PersistentTree<Integer, Integer>();
+			tree = new Tree() {
+				public void insert(Integer key) {
+					persistent.insert(key, key);
+				}
+
+				public Object find(Integer key) {
+					return persistent.find(key);
+				}
+
+				public void remove(Integer key) {
+					persistent.remove(key);
+				}
+
+				public Iterator<Integer> iterator() {
+					return persistent.iterator();
+				}
+			};
+		} else if(impl.startsWith("BPlusTree")) {
+			final BPlusTree<Integer, Integer> bPlus = new BPlusTree<Integer, Integer>(
+					Integer.parseInt(impl.substring("BPlusTree".length())));
+			tree = new Tree() {
+				public void insert(Integer key) {
+					bPlus.insert(key, key);
+				}
+
+				public Object find(Integer key) {
+					return bPlus.find(key);
+				}
+
+				public void remove(Integer key) {
+					bPlus.remove(key);
+				}
+
+				public Iterator<Integer> iterator() {
+					return bPlus.iterator();
+				}
+			};
+		} else if(impl.equals("ConcurrentSkipList")) {
+			final ConcurrentSkipList<Integer, Integer> skipList =
+					new ConcurrentSkipList<Integer, Integer>();
+			tree = new Tree() {
+				public void insert(Integer key) {
+					skipList.insert(key, key);
+				}
+
+				public Object find(Integer key) {
+					return skipList.find(key);
+				}
+
+				public void remove(Integer key) {
+					skipList.remove(key);
+				}
+
+				public Iterator<Integer> iterator() {
+					return skipList.iterator();
+				}
+			};
+		} else {
+			throw new IllegalArgumentException("unknown tree " + impl);
+		}
+	}
+
+	/**
+	 * Returns a Tree backed by a BinarySearchTree or one of its subclasses.
+	 */
+	private static Tree adapt(final BinarySearchTree<Integer, Integer> bst) {
+		return new Tree() {
+			public void insert(Integer key) {
+				bst.insert(key, key);
+			}
+
+			public Object find(Integer key) {
+				return bst.find(key);
+			}
+
+			public void remove(Integer key) {
+				bst.remove(key);
+			}
+
+			public Iterator<Integer> iterator() {
+				return bst.iterator();
+			}
+		};
+	}
+
+	void insert(Integer key) {
+		tree.insert(key);
+	}
+
+	int read(Integer key) {
+		return tree.find(key) == null ? 0 : 1;
+	}
+
+	void write(Integer key) {
+		tree.remove(key);
+		tree.insert(key);
+	}
+
+	@Benchmark
+	public Object find() {
+		return tree.find(keys[accesses[next()]]);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public long scan() {
+		long sum = 0;
+		for(Integer value : tree) {
+			sum += value;
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,220 @@
+package bench;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Base of the JMH benchmarks: a structure loaded with size keys in an order set by the key
+ * distribution, then accessed according to the same distribution. Subclasses choose the
+ * structure through their impl parameter and say what a read and a write of a key mean.
+ *
+ * Two benchmarks are inherited by every subclass:
+ *   load	time to build the structure from empty with size keys (single shot)
+ *   mix	time per operation of a stream of reads and writes, readPercent percent of them
+ *   		reads; writes leave the size unchanged
+ *
+ * Distributions:
+ *   uniform	keys loaded in random order; every key equally likely to be accessed
+ *   zipfian	keys loaded in random order; accesses Zipfian with exponent THETA, the hottest
+ *   			keys scattered through the key space
+ *   sorted		keys loaded in increasing order and accessed in increasing order, wrapping
+ *
+ * Run with gradle :benchmarks:jmh, which writes JSON results to
+ * Benchmark/build/results/jmh/results.json. Sizes up to 100M can be chosen with
+ * -Pjmh="-p size=100000000 -jvmArgs -Xmx24g"; the defaults stop at 1M.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class Workload {
+
+	static final int ACCESSES = 1 << 20; //Length of the access stream; must be a power of two
+	static final double THETA = 0.99;
+	private static final long SEED = 42;
+
+	@Param({"1000", "100000", "1000000"})
+	public int size;
+
+	@Param({"uniform", "zipfian", "sorted"})
+	public String distribution;
+
+	int count; //Number of keys used: size, unless the subclass caps it
+	Integer[] keys; //The keys 0...count - 1, boxed once so that boxing is not measured
+	int[] order; //Indices of keys in the order they are loaded
+	int[] accesses; //Indices of keys in the order they are accessed
+	private int cursor;
+
+	/**
+	 * The read/write mix of the mix benchmark.
+	 */
+	@State(Scope.Thread)
+	public static class Mix {
+
+		@Param({"100", "90", "50", "10"})
+		public int readPercent;
+
+		boolean[] writes;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			Random rand = new Random(SEED);
+			writes = new boolean[ACCESSES];
+			for(int i = 0; i < ACCESSES; i++) {
+				writes[i] = rand.nextInt(100) >= readPercent;
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of keys to use in a trial of the given size. A subclass may return
+	 * fewer for a combination of parameters that would otherwise take too long; its results
+	 * are then those of the smaller size.
+	 */
+	int cap(int size) {
+		return size;
+	}
+
+	/**
+	 * Replaces the structure with a new empty one sized for count entries.
+	 */
+	abstract void reset();
+
+	/**
+	 * Adds key to the structure.
+	 */
+	abstract void insert(Integer key);
+
+	/**
+	 * Reads key, returning something derived from the result so that the read is not
+	 * optimized away.
+	 */
+	abstract int read(Integer key);
+
+	/**
+	 * Writes key, leaving the size of the structure unchanged.
+	 */
+	abstract void write(Integer key);
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Random rand = new Random(SEED);
+		count = cap(size);
+		keys = new Integer[count];
+		for(int i = 0; i < count; i++) {
+			keys[i] = i;
+		}
+		order = loadOrder(rand);
+		accesses = accesses(rand);
+		reset();
+		for(int i = 0; i < count; i++) {
+			insert(keys[order[i]]);
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public void load() {
+		reset();
+		for(int i = 0; i < count; i++) {
+			insert(keys[order[i]]);
+		}
+	}
+
+	@Benchmark
+	public int mix(Mix mix) {
+		int i = next();
+		Integer key = keys[accesses[i]];
+		if(mix.writes[i]) {
+			write(key);
+			return 0;
+		}
+		return read(key);
+	}
+
+	/**
+	 * Returns the position of the next access in the access stream, wrapping at the end.
+	 */
+	int next() {
+		int i = cursor;
+		cursor = (i + 1) & (ACCESSES - 1);
+		return i;
+	}
+
+	/**
+	 * Returns the indices 0...count - 1 in loading order: increasing if the distribution is
+	 * sorted, a random permutation otherwise.
+	 */
+	private int[] loadOrder(Random rand) {
+		int[] out = new int[count];
+		for(int i = 0; i < count; i++) {
+			out[i] = i;
+		}
+		if(!distribution.equals("sorted")) {
+			for(int i = count - 1; i > 0; i--) { //Fisher-Yates shuffle
+				int j = rand.nextInt(i + 1);
+				int temp = out[i];
+				out[i] = out[j];
+				out[j] = temp;
+			}
+		}
+		return out;
+	}
+
+	/**
+	 * Returns ACCESSES key indices to access after loading.
+	 */
+	private int[] accesses(Random rand) {
+		int[] out = new int[ACCESSES];
+		if(distribution.equals("uniform")) {
+			for(int i = 0; i < ACCESSES; i++) {
+				out[i] = rand.nextInt(count);
+			}
+		} else if(distribution.equals("sorted")) {
+			int next = rand.nextInt(count);
+			for(int i = 0; i < ACCESSES; i++) {
+				out[i] = next;
+				next = next + 1 == count ? 0 : next + 1;
+			}
+		} else if(distribution.equals("zipfian")) {
+			double zeta = 0; //Generalized harmonic number; see Gray et al., "Quickly Generating
+			for(int i = 1; i <= count; i++) { //Billion-Record Synthetic Databases"
+				zeta += 1 / Math.pow(i, THETA);
+			}
+			double zeta2 = 1 + 1 / Math.pow(2, THETA);
+			double alpha = 1 / (1 - THETA);
+			double eta = (1 - Math.pow(2.0 / count, 1 - THETA)) / (1 - zeta2 / zeta);
+			for(int i = 0; i < ACCESSES; i++) {
+				double u = rand.nextDouble();
+				double uz = u * zeta;
+				int rank;
+				if(uz < 1) {
+					rank = 0;
+				} else if(uz < zeta2) {
+					rank = 1;
+				} else {
+					rank = (int)(count * Math.pow(eta * u - eta + 1, alpha));
+				}
+				out[i] = order[Math.min(rank, count - 1)]; //Scatter the hot ranks
+			}
+		} else {
+			throw new IllegalArgumentException("unknown distribution " + distribution);
+		}
+		return out;
+	}
+}
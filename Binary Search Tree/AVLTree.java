@@ -0,0 +1,175 @@
+package bstree;
+import java.util.Comparator;
+
+/**
+ * Binary search tree that keeps itself balanced using AVL rotations. The heights of the two
+ * subtrees of every node differ by at most one, so the height of the tree stays below
+ * 1.45 log(n) and find, insert and remove take O(log n) time regardless of insertion order.
+ * @param <K>	type of key objects to be used
+ * @param <V>	type of value objects to be used
+ */
+public class AVLTree<K extends Comparable, V> extends BinarySearchTree<K, V> {
+
+	/**
+	 * Test code.
+	 */
+	public static void main(String[] args) {
+		AVLTree<Integer, Integer> tree = new AVLTree<Integer, Integer>();
+		for(int i = 1; i <= 15; i++) {
+			tree.insert(i, i);
+		}
+		System.out.println(tree + " " + tree.size() + " " + tree.height());
+		tree.remove(8);
+		tree.remove(1);
+		System.out.println(tree + " " + tree.size() + " " + tree.height());
+	}
+
+	/**
+	 * Constructs a new AVL tree with no entries.
+	 */
+	public AVLTree() {
+		super();
+	}
+
+	/**
+	 * Constructs a new AVL tree with no entries, ordered by comparator.
+	 * @param comparator	ordering of the keys; null for their natural ordering
+	 */
+	public AVLTree(Comparator<? super K> comparator) {
+		super(comparator);
+	}
+
+	/**
+	 * Returns the number of nodes on the longest path from the root to a leaf; 0 if this
+	 * tree is empty.
+	 */
+	public int height() {
+		return height(root);
+	}
+
+	/**
+	 * Inserts an Entry into this tree; if an Entry with the key already exists, the Entry
+	 * is updated with the new value.
+	 * @param key	key of Entry to insert
+	 * @param value	value of Entry to insert
+	 */
+	public void insert(K key, V value) {
+		TreeNode<Entry<K, V>> node = insertNode(key, value);
+		if(node != null) { //Only rebalance if a new node was added
+			rebalance(node.parent);
+		}
+	}
+
+	/**
+	 * Removes the entry with the specified key from the tree; returns the value associated
+	 * with the key, or null if the key was not found.
+	 * @param key	the key of the Entry to search for
+	 * @return		the value associated with key; null if key is not in the tree
+	 */
+	public V remove(K key) {
+		TreeNode<Entry<K, V>> node = findNode(key);
+		if(node == null) return null;
+		V out = node.obj.value;
+		TreeNode<Entry<K, V>> parent = unlink(node);
+		size--;
+		rebalance(parent);
+		return out;
+	}
+
+	/**
+	 * Performs a clockwise rotation of this tree, keeping heights and counts up to date. The
+	 * rotation can leave the root out of AVL balance, so the height bound no longer holds
+	 * after a manual rotation.
+	 */
+	public void rotateClockwise() {
+		if(root != null && root.left != null) {
+			rotateRight(root);
+		}
+	}
+
+	/**
+	 * Performs a counterclockwise rotation of this tree, keeping heights and counts up to
+	 * date. The rotation can leave the root out of AVL balance, so the height bound no longer
+	 * holds after a manual rotation.
+	 */
+	public void rotateCounterClockwise() {
+		if(root != null && root.right != null) {
+			rotateLeft(root);
+		}
+	}
+
+	/**
+	 * Returns the height of the specified subtree; 0 for an empty subtree.
+	 */
+	private static int height(TreeNode<?> node) {
+		return node == null ? 0 : node.height;
+	}
+
+	/**
+	 * Recomputes the height of node from the heights of its children.
+	 */
+	private static void updateHeight(TreeNode<?> node) {
+		node.height = Math.max(height(node.left), height(node.right)) + 1;
+	}
+
+	/**
+	 * Walks from node up to the root, updating heights and rotating wherever the heights of
+	 * two sibling subtrees differ by more than one.
+	 */
+	private void rebalance(TreeNode<Entry<K, V>> node) {
+		while(node != null) {
+			updateHeight(node);
+			int balance = height(node.left) - height(node.right);
+			if(balance > 1) {
+				if(height(node.left.left) < height(node.left.right)) {
+					rotateLeft(node.left);
+				}
+				node = rotateRight(node);
+			} else if(balance < -1) {
+				if(height(node.right.right) < height(node.right.left)) {
+					rotateRight(node.right);
+				}
+				node = rotateLeft(node);
+			}
+			node = node.parent;
+		}
+	}
+
+	/**
+	 * Rotates the subtree rooted at node counterclockwise and returns its new root.
+	 */
+	private TreeNode<Entry<K, V>> rotateLeft(TreeNode<Entry<K, V>> node) {
+		TreeNode<Entry<K, V>> pivot = node.right;
+		node.right = pivot.left;
+		if(pivot.left != null) {
+			pivot.left.parent = node;
+		}
+		replaceChild(node, pivot);
+		pivot.left = node;
+		node.parent = pivot;
+		updateHeight(node);
+		updateHeight(pivot);
+		node.updateCount();
+		pivot.updateCount();
+		return pivot;
+	}
+
+	/**
+	 * Rotates the subtree rooted at node clockwise and returns its new root.
+	 */
+	private TreeNode<Entry<K, V>> rotateRight(TreeNode<Entry<K, V>> node) {
+		TreeNode<Entry<K, V>> pivot = node.left;
+		node.left = pivot.right;
+		if(pivot.right != null) {
+			pivot.right.parent = node;
+		}
+		replaceChild(node, pivot);
+		pivot.right = node;
+		node.parent = pivot;
+		updateHeight(node);
+		updateHeight(pivot);
+		node.updateCount();
+		pivot.updateCount();
+		return pivot;
+	}
+}
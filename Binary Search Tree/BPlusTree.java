@@ -0,0 +1,515 @@
+package bstree;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import list.LinkedList;
+
+/**
+ * Implementation of a B+-tree ordered map. Each node keeps its keys in one contiguous array,
+ * so a lookup takes one cache miss per level of a tree only log_fanout(n) levels deep, rather
+ * than one per level of a binary tree. Values are held only in the leaves, which are linked
+ * in key order so that in-order and range scans walk the leaves without returning to the
+ * inner nodes.
+ *
+ * Leaves hold up to fanout entries and inner nodes up to fanout children. Every node but the
+ * root stays at least half full.
+ * @param <K>	type of key objects to be used
+ * @param <V>	type of value objects to be used
+ */
+public class BPlusTree<K extends Comparable, V> implements Iterable<V> {
+
+	private final int fanout;
+	private Node root;
+	private Leaf head; //Leftmost leaf
+	private int size;
+
+	//Result of a split during insert, passed up to the parent
+	private Object splitKey;
+	private Node splitNode;
+
+	/**
+	 * Node of the tree; holds count keys.
+	 */
+	private abstract static class Node {
+		final Object[] keys;
+		int count;
+
+		Node(int capacity) {
+			keys = new Object[capacity];
+		}
+	}
+
+	/**
+	 * Leaf node; values[i] is the value of keys[i].
+	 */
+	private static final class Leaf extends Node {
+		final Object[] values;
+		Leaf next;
+
+		Leaf(int fanout) {
+			super(fanout + 1); //One spare slot holds an entry until the leaf splits
+			values = new Object[fanout + 1];
+		}
+	}
+
+	/**
+	 * Inner node with count + 1 children. Every key in children[i] is at least keys[i - 1]
+	 * and less than keys[i].
+	 */
+	private static final class Inner extends Node {
+		final Node[] children;
+
+		Inner(int fanout) {
+			super(fanout); //One spare slot, as above
+			children = new Node[fanout + 1];
+		}
+	}
+
+	/**
+	 * Test code.
+	 */
+	public static void main(String[] args) {
+		BPlusTree<Integer, Integer> tree = new BPlusTree<Integer, Integer>(4);
+		for(int i = 0; i < 20; i++) {
+			tree.insert((i * 7) % 20, i);
+		}
+		System.out.println(tree.inOrder() + " " + tree.size() + " " + tree.height());
+		for(int i = 0; i < 20; i += 2) {
+			tree.remove(i);
+		}
+		System.out.println(tree.inOrder() + " " + tree.size() + " " + tree.height());
+	}
+
+	/**
+	 * Constructs a new tree with no entries and a fanout of 64.
+	 */
+	public BPlusTree() {
+		this(64);
+	}
+
+	/**
+	 * Constructs a new tree with no entries.
+	 * @param fanout	maximum number of entries per leaf and of children per inner node; at
+	 * 					least 3
+	 */
+	public BPlusTree(int fanout) {
+		if(fanout < 3) {
+			throw new IllegalArgumentException("fanout must be at least 3");
+		}
+		this.fanout = fanout;
+		head = new Leaf(fanout);
+		root = head;
+	}
+
+	/**
+	 * Returns the number of entries in this tree.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of levels of nodes in this tree.
+	 */
+	public int height() {
+		int height = 1;
+		for(Node node = root; node instanceof Inner; node = ((Inner)node).children[0]) {
+			height++;
+		}
+		return height;
+	}
+
+	/**
+	 * Finds the value associated with the specified key.
+	 * @param key	the key to search for
+	 * @return		the value associated with key; null if key is not found in this tree
+	 */
+	@SuppressWarnings("unchecked")
+	public V find(K key) {
+		Node node = root;
+		while(node instanceof Inner) {
+			node = ((Inner)node).children[childIndex(node, key)];
+		}
+		int i = search(node, key);
+		return i >= 0 ? (V)((Leaf)node).values[i] : null;
+	}
+
+	/**
+	 * Inserts an entry into this tree; if an entry with the key already exists, its value is
+	 * replaced.
+	 * @param key	key of entry to insert
+	 * @param value	value of entry to insert
+	 */
+	public void insert(K key, V value) {
+		if(insert(root, key, value)) { //Root split; grow a level
+			Inner newRoot = new Inner(fanout);
+			newRoot.keys[0] = splitKey;
+			newRoot.children[0] = root;
+			newRoot.children[1] = splitNode;
+			newRoot.count = 1;
+			root = newRoot;
+			splitKey = null;
+			splitNode = null;
+		}
+	}
+
+	/**
+	 * Inserts into the subtree at node. Returns true if node split, leaving the new right
+	 * sibling in splitNode and the smallest key under it in splitKey.
+	 */
+	private boolean insert(Node node, K key, V value) {
+		if(node instanceof Leaf) {
+			Leaf leaf = (Leaf)node;
+			int i = search(leaf, key);
+			if(i >= 0) {
+				leaf.values[i] = value;
+				return false;
+			}
+			i = -i - 1;
+			shift(leaf.keys, i, leaf.count);
+			shift(leaf.values, i, leaf.count);
+			leaf.keys[i] = key;
+			leaf.values[i] = value;
+			leaf.count++;
+			size++;
+			return leaf.count > fanout && splitLeaf(leaf);
+		}
+		Inner inner = (Inner)node;
+		int i = childIndex(inner, key);
+		if(!insert(inner.children[i], key, value)) {
+			return false;
+		}
+		shift(inner.keys, i, inner.count);
+		shift(inner.children, i + 1, inner.count + 1);
+		inner.keys[i] = splitKey;
+		inner.children[i + 1] = splitNode;
+		inner.count++;
+		return inner.count >= fanout && splitInner(inner);
+	}
+
+	/**
+	 * Moves the upper half of an overfull leaf into a new leaf. Always returns true.
+	 */
+	private boolean splitLeaf(Leaf leaf) {
+		Leaf right = new Leaf(fanout);
+		int keep = leaf.count / 2;
+		right.count = leaf.count - keep;
+		System.arraycopy(leaf.keys, keep, right.keys, 0, right.count);
+		System.arraycopy(leaf.values, keep, right.values, 0, right.count);
+		clear(leaf.keys, keep, leaf.count);
+		clear(leaf.values, keep, leaf.count);
+		leaf.count = keep;
+		right.next = leaf.next;
+		leaf.next = right;
+		splitKey = right.keys[0];
+		splitNode = right;
+		return true;
+	}
+
+	/**
+	 * Moves the upper half of an overfull inner node into a new node; the middle key moves up
+	 * to the parent. Always returns true.
+	 */
+	private boolean splitInner(Inner inner) {
+		Inner right = new Inner(fanout);
+		int keep = inner.count / 2; //Keys staying in inner
+		right.count = inner.count - keep - 1;
+		splitKey = inner.keys[keep];
+		System.arraycopy(inner.keys, keep + 1, right.keys, 0, right.count);
+		System.arraycopy(inner.children, keep + 1, right.children, 0, right.count + 1);
+		clear(inner.keys, keep, inner.count);
+		clear(inner.children, keep + 1, inner.count + 1);
+		inner.count = keep;
+		splitNode = right;
+		return true;
+	}
+
+	/**
+	 * Removes the entry with the specified key from the tree; returns the value associated
+	 * with the key, or null if the key was not found.
+	 * @param key	the key of the entry to search for
+	 * @return		the value associated with key; null if key is not in the tree
+	 */
+	public V remove(K key) {
+		V out = remove(root, key);
+		if(root instanceof Inner && root.count == 0) { //Root has a single child; shrink a level
+			root = ((Inner)root).children[0];
+		}
+		return out;
+	}
+
+	/**
+	 * Removes key from the subtree at node, then refills any child left less than half full.
+	 */
+	@SuppressWarnings("unchecked")
+	private V remove(Node node, K key) {
+		if(node instanceof Leaf) {
+			Leaf leaf = (Leaf)node;
+			int i = search(leaf, key);
+			if(i < 0) {
+				return null;
+			}
+			V out = (V)leaf.values[i];
+			unshift(leaf.keys, i, leaf.count);
+			unshift(leaf.values, i, leaf.count);
+			leaf.count--;
+			size--;
+			return out;
+		}
+		Inner inner = (Inner)node;
+		int i = childIndex(inner, key);
+		V out = remove(inner.children[i], key);
+		Node child = inner.children[i];
+		if(child.count < minCount(child)) {
+			refill(inner, i);
+		}
+		return out;
+	}
+
+	/**
+	 * Returns the fewest keys a node other than the root may hold.
+	 */
+	private int minCount(Node node) {
+		return node instanceof Leaf ? fanout / 2 : (fanout - 1) / 2;
+	}
+
+	/**
+	 * Brings children[i] of parent back to half full by borrowing from a sibling that can spare
+	 * a key, or otherwise by merging it with a sibling.
+	 */
+	private void refill(Inner parent, int i) {
+		Node left = i > 0 ? parent.children[i - 1] : null;
+		Node right = i < parent.count ? parent.children[i + 1] : null;
+		if(left != null && left.count > minCount(left)) {
+			borrowFromLeft(parent, i);
+		} else if(right != null && right.count > minCount(right)) {
+			borrowFromRight(parent, i);
+		} else if(left != null) {
+			merge(parent, i - 1);
+		} else {
+			merge(parent, i);
+		}
+	}
+
+	/**
+	 * Moves the last key of children[i - 1] into children[i].
+	 */
+	private void borrowFromLeft(Inner parent, int i) {
+		Node left = parent.children[i - 1];
+		Node node = parent.children[i];
+		shift(node.keys, 0, node.count);
+		if(node instanceof Leaf) {
+			Leaf l = (Leaf)left;
+			Leaf n = (Leaf)node;
+			shift(n.values, 0, n.count);
+			n.keys[0] = l.keys[l.count - 1];
+			n.values[0] = l.values[l.count - 1];
+			l.keys[l.count - 1] = null;
+			l.values[l.count - 1] = null;
+			parent.keys[i - 1] = n.keys[0];
+		} else { //Rotate through the separator in parent
+			Inner l = (Inner)left;
+			Inner n = (Inner)node;
+			shift(n.children, 0, n.count + 1);
+			n.keys[0] = parent.keys[i - 1];
+			n.children[0] = l.children[l.count];
+			parent.keys[i - 1] = l.keys[l.count - 1];
+			l.keys[l.count - 1] = null;
+			l.children[l.count] = null;
+		}
+		left.count--;
+		node.count++;
+	}
+
+	/**
+	 * Moves the first key of children[i + 1] into children[i].
+	 */
+	private void borrowFromRight(Inner parent, int i) {
+		Node node = parent.children[i];
+		Node right = parent.children[i + 1];
+		if(node instanceof Leaf) {
+			Leaf n = (Leaf)node;
+			Leaf r = (Leaf)right;
+			n.keys[n.count] = r.keys[0];
+			n.values[n.count] = r.values[0];
+			unshift(r.keys, 0, r.count);
+			unshift(r.values, 0, r.count);
+			parent.keys[i] = r.keys[0];
+		} else { //Rotate through the separator in parent
+			Inner n = (Inner)node;
+			Inner r = (Inner)right;
+			n.keys[n.count] = parent.keys[i];
+			n.children[n.count + 1] = r.children[0];
+			parent.keys[i] = r.keys[0];
+			unshift(r.keys, 0, r.count);
+			unshift(r.children, 0, r.count + 1);
+		}
+		node.count++;
+		right.count--;
+	}
+
+	/**
+	 * Merges children[i + 1] of parent into children[i] and removes it from parent.
+	 */
+	private void merge(Inner parent, int i) {
+		Node left = parent.children[i];
+		Node right = parent.children[i + 1];
+		if(left instanceof Leaf) {
+			Leaf l = (Leaf)left;
+			Leaf r = (Leaf)right;
+			System.arraycopy(r.keys, 0, l.keys, l.count, r.count);
+			System.arraycopy(r.values, 0, l.values, l.count, r.count);
+			l.count += r.count;
+			l.next = r.next;
+		} else {
+			Inner l = (Inner)left;
+			Inner r = (Inner)right;
+			l.keys[l.count] = parent.keys[i];
+			System.arraycopy(r.keys, 0, l.keys, l.count + 1, r.count);
+			System.arraycopy(r.children, 0, l.children, l.count + 1, r.count + 1);
+			l.count += r.count + 1;
+		}
+		unshift(parent.keys, i, parent.count);
+		unshift(parent.children, i + 1, parent.count + 1);
+		parent.count--;
+	}
+
+	/**
+	 * Returns a LinkedList of the values in this tree, in key order.
+	 */
+	public LinkedList<V> inOrder() {
+		LinkedList<V> out = new LinkedList<V>();
+		for(V value : this) {
+			out.add(value);
+		}
+		return out;
+	}
+
+	/**
+	 * Returns an iterator over the values in this tree, in key order.
+	 */
+	public Iterator<V> iterator() {
+		return new LeafIterator(head, 0, null);
+	}
+
+	/**
+	 * Returns an iterator over the values of the entries with keys in [from, to), in key order.
+	 */
+	public Iterator<V> range(K from, K to) {
+		Node node = root;
+		while(node instanceof Inner) {
+			node = ((Inner)node).children[childIndex(node, from)];
+		}
+		int i = search(node, from);
+		return new LeafIterator((Leaf)node, i >= 0 ? i : -i - 1, to);
+	}
+
+	/**
+	 * Iterator that walks the linked leaves from a starting position.
+	 */
+	private class LeafIterator implements Iterator<V> {
+
+		private Leaf leaf;
+		private int index;
+		private final K to; //Exclusive upper bound; null for none
+
+		LeafIterator(Leaf leaf, int index, K to) {
+			this.leaf = leaf;
+			this.index = index;
+			this.to = to;
+			skipExhausted();
+		}
+
+		/**
+		 * Moves past leaves with no entries left to visit.
+		 */
+		private void skipExhausted() {
+			while(leaf != null && index >= leaf.count) {
+				leaf = leaf.next;
+				index = 0;
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		public boolean hasNext() {
+			return leaf != null && (to == null || to.compareTo(leaf.keys[index]) > 0);
+		}
+
+		@SuppressWarnings("unchecked")
+		public V next() {
+			if(!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			V out = (V)leaf.values[index++];
+			skipExhausted();
+			return out;
+		}
+
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	/**
+	 * Returns the index of the child of an inner node whose subtree could hold key: the
+	 * number of keys in the node that are less than or equal to key.
+	 */
+	@SuppressWarnings("unchecked")
+	private static int childIndex(Node node, Comparable key) {
+		int lo = 0;
+		int hi = node.count;
+		while(lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if(key.compareTo(node.keys[mid]) >= 0) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	/**
+	 * Returns the index of key among the keys of node, or -(insertion point) - 1 if it is not
+	 * there.
+	 */
+	@SuppressWarnings("unchecked")
+	private static int search(Node node, Comparable key) {
+		int lo = 0;
+		int hi = node.count - 1;
+		while(lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			int comp = key.compareTo(node.keys[mid]);
+			if(comp > 0) {
+				lo = mid + 1;
+			} else if(comp < 0) {
+				hi = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -lo - 1;
+	}
+
+	/**
+	 * Shifts arr[from...count - 1] one place right.
+	 */
+	private static void shift(Object[] arr, int from, int count) {
+		System.arraycopy(arr, from, arr, from + 1, count - from);
+	}
+
+	/**
+	 * Shifts arr[from + 1...count - 1] one place left, overwriting arr[from], and clears the
+	 * slot left at the end.
+	 */
+	private static void unshift(Object[] arr, int from, int count) {
+		System.arraycopy(arr, from + 1, arr, from, count - from - 1);
+		arr[count - 1] = null;
+	}
+
+	private static void clear(Object[] arr, int from, int to) {
+		for(int i = from; i < to; i++) {
+			arr[i] = null;
+		}
+	}
+}
@@ -1,5 +1,24 @@
 package bstree;
-import list.*;
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import dict.Codec;
+import dict.SnapshotReader;
+import dict.SnapshotWriter;
+import list.LinkedList;
 
 /**
  * Implementation of a basic binary search tree.
@@ -7,10 +26,13 @@ import list.*;
  * @param <K>	type of key objects to be used
  * @param <V>	type of value objects to be used
  */
-public class BinarySearchTree<K extends Comparable, V> {
+public class BinarySearchTree<K extends Comparable, V> implements Iterable<V> {
 
+	private static final int PARALLEL_THRESHOLD = 1 << 13; //Smaller pieces are not split further
+	
 	TreeNode<Entry<K, V>> root;
 	int size;
+	final Comparator<? super K> comparator; //null to use the natural ordering of the keys
 	
 	/**
 	 * Test code.
@@ -39,11 +61,30 @@ public class BinarySearchTree<K extends Comparable, V> {
 	}
 	
 	/**
-	 * Constructs a new binary search tree with no entries.
+	 * Constructs a new binary search tree with no entries, ordered by the natural ordering of
+	 * its keys.
 	 */
 	public BinarySearchTree() {
+		this(null);
+	}
+	
+	/**
+	 * Constructs a new binary search tree with no entries, ordered by comparator.
+	 * @param comparator	ordering of the keys; null for their natural ordering
+	 */
+	public BinarySearchTree(Comparator<? super K> comparator) {
 		root = null;
 		size = 0;
+		this.comparator = comparator;
+	}
+	
+	/**
+	 * Compares two keys with this tree's comparator, or by their natural ordering if it has
+	 * none.
+	 */
+	@SuppressWarnings("unchecked")
+	final int compare(K a, K b) {
+		return comparator == null ? a.compareTo(b) : comparator.compare(a, b);
 	}
 	
 	/**
@@ -53,15 +94,34 @@ public class BinarySearchTree<K extends Comparable, V> {
 		return size;
 	}
 	
+	/**
+	 * Returns the number of nodes on the longest path from the root to a leaf; 0 if this
+	 * tree is empty.
+	 */
+	public int height() {
+		int height = 0;
+		ArrayDeque<TreeNode<Entry<K, V>>> level = new ArrayDeque<TreeNode<Entry<K, V>>>();
+		if(root != null) {
+			level.add(root);
+		}
+		while(!level.isEmpty()) { //Visit one level at a time
+			height++;
+			for(int i = level.size(); i > 0; i--) {
+				TreeNode<Entry<K, V>> node = level.poll();
+				if(node.left != null) level.add(node.left);
+				if(node.right != null) level.add(node.right);
+			}
+		}
+		return height;
+	}
+	
 	/**
 	 * Finds the value associated with the specified key.
 	 * @param key	the key to search for
 	 * @return		the value associated with key; null if key is not found in this tree
 	 */
 	public V find(K key) {
-		if(root == null) return null;
-		Entry<K, V> keyEnt = new Entry<K, V>(key);
-		TreeNode<Entry<K, V>> node = root.findNode(keyEnt);
+		TreeNode<Entry<K, V>> node = findNode(key);
 		if(node == null) {
 			return null;
 		} else {
@@ -69,6 +129,183 @@ public class BinarySearchTree<K extends Comparable, V> {
 		}
 	}
 	
+	/**
+	 * Returns the node holding key; null if there is none. Compares key directly against the
+	 * keys in the tree, so searching allocates nothing.
+	 */
+	TreeNode<Entry<K, V>> findNode(K key) {
+		TreeNode<Entry<K, V>> node = root;
+		while(node != null) {
+			int comp = compare(key, node.obj.key);
+			if(comp == 0) {
+				return node;
+			}
+			node = comp < 0 ? node.left : node.right;
+		}
+		return null;
+	}
+	
+	/**
+	 * Adds an entry for key, or replaces the value of the existing entry for key. The tree's
+	 * size and subtree counts are updated; allocation happens only when a node is added.
+	 * @return	the new node; null if an existing entry was updated instead
+	 */
+	TreeNode<Entry<K, V>> insertNode(K key, V value) {
+		if(root == null) {
+			root = new TreeNode<Entry<K, V>>(new Entry<K, V>(key, value), null);
+			size++;
+			return root;
+		}
+		TreeNode<Entry<K, V>> node = root;
+		while(true) {
+			int comp = compare(key, node.obj.key);
+			if(comp == 0) {
+				node.obj.value = value;
+				return null;
+			}
+			TreeNode<Entry<K, V>> child = comp < 0 ? node.left : node.right;
+			if(child == null) {
+				child = new TreeNode<Entry<K, V>>(new Entry<K, V>(key, value), node);
+				if(comp < 0) {
+					node.left = child;
+				} else {
+					node.right = child;
+				}
+				child.adjustCounts(1);
+				size++;
+				return child;
+			}
+			node = child;
+		}
+	}
+	
+	/**
+	 * Returns the smallest key in this tree; null if the tree is empty.
+	 */
+	public K first() {
+		return root == null ? null : root.first().obj.key;
+	}
+	
+	/**
+	 * Returns the largest key in this tree; null if the tree is empty.
+	 */
+	public K last() {
+		return root == null ? null : root.last().obj.key;
+	}
+	
+	/**
+	 * Returns the largest key less than or equal to key; null if there is none.
+	 */
+	public K floor(K key) {
+		return keyOf(floorNode(key, true));
+	}
+	
+	/**
+	 * Returns the largest key strictly less than key; null if there is none.
+	 */
+	public K lower(K key) {
+		return keyOf(floorNode(key, false));
+	}
+	
+	/**
+	 * Returns the smallest key greater than or equal to key; null if there is none.
+	 */
+	public K ceiling(K key) {
+		return keyOf(ceilingNode(key, true));
+	}
+	
+	/**
+	 * Returns the smallest key strictly greater than key; null if there is none.
+	 */
+	public K higher(K key) {
+		return keyOf(ceilingNode(key, false));
+	}
+	
+	/**
+	 * Returns the key held by node; null if node is null.
+	 */
+	private K keyOf(TreeNode<Entry<K, V>> node) {
+		return node == null ? null : node.obj.key;
+	}
+	
+	/**
+	 * Returns the node with the largest key below key (or equal to it, if inclusive).
+	 */
+	TreeNode<Entry<K, V>> floorNode(K key, boolean inclusive) {
+		TreeNode<Entry<K, V>> node = root;
+		TreeNode<Entry<K, V>> best = null;
+		while(node != null) {
+			int comp = compare(key, node.obj.key);
+			if(comp > 0 || (inclusive && comp == 0)) {
+				best = node;
+				if(comp == 0) break;
+				node = node.right;
+			} else {
+				node = node.left;
+			}
+		}
+		return best;
+	}
+	
+	/**
+	 * Returns the node with the smallest key above key (or equal to it, if inclusive).
+	 */
+	TreeNode<Entry<K, V>> ceilingNode(K key, boolean inclusive) {
+		TreeNode<Entry<K, V>> node = root;
+		TreeNode<Entry<K, V>> best = null;
+		while(node != null) {
+			int comp = compare(key, node.obj.key);
+			if(comp < 0 || (inclusive && comp == 0)) {
+				best = node;
+				if(comp == 0) break;
+				node = node.left;
+			} else {
+				node = node.right;
+			}
+		}
+		return best;
+	}
+	
+	/**
+	 * Returns the number of keys in this tree that are strictly less than key.
+	 */
+	public int rank(K key) {
+		int rank = 0;
+		TreeNode<Entry<K, V>> node = root;
+		while(node != null) {
+			if(compare(key, node.obj.key) <= 0) {
+				node = node.left;
+			} else {
+				rank += TreeNode.count(node.left) + 1;
+				node = node.right;
+			}
+		}
+		return rank;
+	}
+	
+	/**
+	 * Returns the key with the specified rank, i.e. the (index + 1)th smallest key.
+	 * @param index	rank of the key, from 0 to size() - 1
+	 * @throws IndexOutOfBoundsException	if index is out of range
+	 */
+	public K select(int index) {
+		if(index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+		}
+		TreeNode<Entry<K, V>> node = root;
+		while(true) {
+			int leftCount = TreeNode.count(node.left);
+			if(index < leftCount) {
+				node = node.left;
+			} else if(index == leftCount) {
+				return node.obj.key;
+			} else {
+				index -= leftCount + 1;
+				node = node.right;
+			}
+		}
+	}
+	
 	/**
 	 * Inserts an Entry into this BST; if an Entry with the key already exists, the Entry
 	 * is updated with the new value.
@@ -76,14 +313,7 @@ public class BinarySearchTree<K extends Comparable, V> {
 	 * @param value	value of Entry to insert
 	 */
 	public void insert(K key, V value) {
-		Entry<K, V> ins = new Entry<K,V>(key, value);
-		if(root == null) {
-			root = new TreeNode<Entry<K,V>>(ins, null);
-			size++;
-		} else {
-			if(root.insert(ins)) //Only update size if a new Entry was inserted
-				size++;
-		}
+		insertNode(key, value);
 	}
 	
 	/**
@@ -93,49 +323,137 @@ public class BinarySearchTree<K extends Comparable, V> {
 	 * @return		the value associated with key; null if key is not in the tree
 	 */
 	public V remove(K key) {
-		TreeNode<Entry<K,V>> node = root.findNode(new Entry<K,V>(key));
+		TreeNode<Entry<K,V>> node = findNode(key);
 		if(node == null) return null;
-		if(node.left == null && node.right == null) {
-			if(node.parent == null) {
-				root = null;
-			} else if(node.parent.right == node) {
-				node.parent.right = null;
-			} else {
-				node.parent.left = null;
-			}
-		} else if(node.left == null) {
-			node.obj = node.right.obj;
-			node.left = node.right.left;
-			node.right = node.right.right;
-		} else if(node.right == null) {
-			node.obj = node.left.obj;
-			node.left = node.left.left;
-			node.right = node.left.right;
-		} else {
-			TreeNode<Entry<K,V>> replace = node.right;
-			while(replace.left != null) {
-				replace = replace.left;
-			}
+		V out = node.obj.value;
+		unlink(node);
+		size--;
+		return out;
+	}
+	
+	/**
+	 * Removes node from the tree. A node with two children takes its successor's Entry, and
+	 * the successor is detached instead.
+	 * @param node	node holding the Entry to remove
+	 * @return		the parent of the node that was detached; null if it was the root
+	 */
+	TreeNode<Entry<K,V>> unlink(TreeNode<Entry<K,V>> node) {
+		if(node.left != null && node.right != null) {
+			TreeNode<Entry<K,V>> replace = node.right.first();
 			node.obj = replace.obj;
-			if(replace == replace.parent.left) {
-				replace.parent.left = replace.right;
-			} else {
-				node.right = node.right.right;
-			}
+			node = replace;
 		}
-		size--;
-		return node.obj.value;
+		replaceChild(node, node.left != null ? node.left : node.right);
+		node.adjustCounts(-1);
+		return node.parent;
+	}
+	
+	/**
+	 * Puts replacement (which may be null) where node was in the tree. Node's own parent
+	 * pointer is left unchanged.
+	 */
+	void replaceChild(TreeNode<Entry<K,V>> node, TreeNode<Entry<K,V>> replacement) {
+		if(replacement != null) {
+			replacement.parent = node.parent;
+		}
+		if(node.parent == null) {
+			root = replacement;
+		} else if(node.parent.left == node) {
+			node.parent.left = replacement;
+		} else {
+			node.parent.right = replacement;
+		}
+	}
+	
+	/**
+	 * Streams every entry of this tree to channel in key order, as a snapshot in the format of
+	 * dict.SnapshotWriter. The channel is not closed.
+	 * @param channel		destination of the snapshot
+	 * @param keyCodec		serializer for keys
+	 * @param valueCodec	serializer for values
+	 */
+	public void writeSnapshot(WritableByteChannel channel, Codec<K> keyCodec, Codec<V> valueCodec)
+			throws IOException {
+		SnapshotWriter out = new SnapshotWriter(channel, size);
+		for(TreeNode<Entry<K, V>> node = root == null ? null : root.first(); node != null;
+				node = node.successor()) {
+			out.write(node.obj.key, keyCodec, node.obj.value, valueCodec);
+		}
+		out.finish();
+	}
+	
+	/**
+	 * Replaces the contents of this tree with the entries of a snapshot read from channel. The
+	 * keys must arrive in strictly increasing order, as writeSnapshot() produces them; the tree
+	 * is then built perfectly balanced in O(n) time, without any comparisons beyond checking
+	 * the order. If reading fails, this tree is left unchanged. The channel is not closed.
+	 * @param channel		source of the snapshot
+	 * @param keyCodec		deserializer for keys
+	 * @param valueCodec	deserializer for values
+	 * @throws IOException	if the snapshot is malformed or its keys are out of order
+	 */
+	public void readSnapshot(ReadableByteChannel channel, Codec<K> keyCodec, Codec<V> valueCodec)
+			throws IOException {
+		SnapshotReader<K, V> in = new SnapshotReader<K, V>(channel, keyCodec, valueCodec);
+		if(in.count() > Integer.MAX_VALUE) {
+			throw new IOException("snapshot too large: " + in.count() + " entries");
+		}
+		int count = (int)in.count();
+		TreeNode<Entry<K, V>> built = build(in, count);
+		root = built;
+		size = count;
+	}
+	
+	/**
+	 * Builds a perfectly balanced subtree from the next count entries of in: the left half,
+	 * then the middle entry, then the right half. Subtree counts and heights are filled in, so
+	 * the result is also a valid AVL tree. Keys are checked to be increasing against the key in
+	 * still holds from the previous entry, which is null before the first.
+	 */
+	private TreeNode<Entry<K, V>> build(SnapshotReader<K, V> in, int count) throws IOException {
+		if(count == 0) {
+			return null;
+		}
+		int leftCount = (count - 1) / 2;
+		TreeNode<Entry<K, V>> left = build(in, leftCount);
+		K previous = in.key();
+		if(!in.next()) {
+			throw new IOException("snapshot ended early");
+		}
+		Entry<K, V> ent = new Entry<K, V>(in.key(), in.value());
+		if(previous != null && compare(previous, ent.key) >= 0) {
+			throw new IOException("snapshot keys are not in increasing order");
+		}
+		TreeNode<Entry<K, V>> right = build(in, count - 1 - leftCount);
+		TreeNode<Entry<K, V>> node = new TreeNode<Entry<K, V>>(ent, null, left, right);
+		if(left != null) {
+			left.parent = node;
+		}
+		if(right != null) {
+			right.parent = node;
+		}
+		node.count = count;
+		node.height = 1 + Math.max(left == null ? 0 : left.height,
+				right == null ? 0 : right.height);
+		return node;
 	}
 	
 	/**
 	 * Performs a clockwise rotation of this BST.
 	 */
 	public void rotateClockwise() {
-		if(root.left != null) {
-			root.parent = root.left;
-			root.left = root.left.right;
-			root.parent.right = root;
-			root = root.parent;
+		if(root != null && root.left != null) {
+			TreeNode<Entry<K,V>> pivot = root.left;
+			root.left = pivot.right;
+			if(pivot.right != null) {
+				pivot.right.parent = root;
+			}
+			pivot.right = root;
+			root.parent = pivot;
+			pivot.parent = null;
+			root.updateCount();
+			pivot.updateCount();
+			root = pivot;
 		}
 	}
 	
@@ -143,11 +461,18 @@ public class BinarySearchTree<K extends Comparable, V> {
 	 * Performs a counterclockwise rotation of this BST.
 	 */
 	public void rotateCounterClockwise() {
-		if(root.right != null) {
-			root.parent = root.right;
-			root.right = root.right.left;
-			root.parent.left = root;
-			root = root.parent;
+		if(root != null && root.right != null) {
+			TreeNode<Entry<K,V>> pivot = root.right;
+			root.right = pivot.left;
+			if(pivot.left != null) {
+				pivot.left.parent = root;
+			}
+			pivot.left = root;
+			root.parent = pivot;
+			pivot.parent = null;
+			root.updateCount();
+			pivot.updateCount();
+			root = pivot;
 		}
 	}
 	
@@ -155,49 +480,449 @@ public class BinarySearchTree<K extends Comparable, V> {
 	 * Returns the values of the in-order traversal of this tree.
 	 */
 	public LinkedList<V> inOrder() {
-		LinkedList<Entry<K, V>> trav = new LinkedList<Entry<K, V>>();
-		if(root != null) {
-			root.inOrder(trav);
-		}
-		return extractValues(trav);
+		return collect(inOrderIterator());
 	}
 
 	/**
 	 * Returns the values of the pre-order traversal of this tree.
 	 */
 	public LinkedList<V> preOrder() {
-		LinkedList<Entry<K, V>> trav = new LinkedList<Entry<K, V>>();
-		if(root != null) {
-			root.preOrder(trav);
-		}
-		return extractValues(trav);
+		return collect(preOrderIterator());
 	}
 	
 	/**
 	 * Returns the values of the post-order traversal of this tree.
 	 */
 	public LinkedList<V> postOrder() {
-		LinkedList<Entry<K, V>> trav = new LinkedList<Entry<K, V>>();
-		if(root != null) {
-			root.postOrder(trav);
-		}
-		return extractValues(trav);
+		return collect(postOrderIterator());
 	}
 	
 	/**
-	 * Extracts the values of the Entries in the given list and returns them in a new list.
-	 * @param ents	list of Entries
-	 * @return		list of the values of the Entries in ent
+	 * Copies the values produced by it into a new list.
 	 */
-	private LinkedList<V> extractValues(LinkedList<Entry<K,V>> ents) {
-		Iterator<Entry<K,V>> entIt = ents.iterator();
+	private LinkedList<V> collect(Iterator<V> it) {
 		LinkedList<V> out = new LinkedList<V>();
-		while(entIt.hasNext()) {
-			out.add(entIt.next().value);
+		while(it.hasNext()) {
+			out.add(it.next());
 		}
 		return out;
 	}
 	
+	/**
+	 * Returns an iterator over the values of this tree in key order.
+	 */
+	public Iterator<V> iterator() {
+		return inOrderIterator();
+	}
+	
+	/**
+	 * Returns a lazy iterator over the values of this tree in key order. Iterators walk the
+	 * parent pointers and use O(1) extra space; they must not be used after the tree is
+	 * modified.
+	 */
+	public Iterator<V> inOrderIterator() {
+		return new Cursor(root == null ? null : root.first()) {
+			TreeNode<Entry<K, V>> advance(TreeNode<Entry<K, V>> node) {
+				return node.successor();
+			}
+		};
+	}
+	
+	/**
+	 * Returns a lazy iterator over the values of this tree in reverse key order.
+	 */
+	public Iterator<V> reverseIterator() {
+		return new Cursor(root == null ? null : root.last()) {
+			TreeNode<Entry<K, V>> advance(TreeNode<Entry<K, V>> node) {
+				return node.predecessor();
+			}
+		};
+	}
+	
+	/**
+	 * Returns a lazy iterator over the values of this tree in pre-order.
+	 */
+	public Iterator<V> preOrderIterator() {
+		return new Cursor(root) {
+			TreeNode<Entry<K, V>> advance(TreeNode<Entry<K, V>> node) {
+				return node.preOrderNext();
+			}
+		};
+	}
+	
+	/**
+	 * Returns a lazy iterator over the values of this tree in post-order.
+	 */
+	public Iterator<V> postOrderIterator() {
+		return new Cursor(root == null ? null : root.postOrderFirst()) {
+			TreeNode<Entry<K, V>> advance(TreeNode<Entry<K, V>> node) {
+				return node.postOrderNext();
+			}
+		};
+	}
+	
+	/**
+	 * Returns a lazy iterator over the values whose keys lie in the range [from, to), in key
+	 * order. Finding the first entry takes O(log n) time and each step after that is amortized
+	 * O(1), so a scan producing k values costs O(log n + k).
+	 * @param from	smallest key of the range (inclusive)
+	 * @param to	upper bound of the range (exclusive)
+	 */
+	public Iterator<V> range(K from, final K to) {
+		TreeNode<Entry<K, V>> start = ceilingNode(from, true);
+		if(start != null && compare(start.obj.key, to) >= 0) {
+			start = null;
+		}
+		return new Cursor(start) {
+			TreeNode<Entry<K, V>> advance(TreeNode<Entry<K, V>> node) {
+				TreeNode<Entry<K, V>> next = node.successor();
+				return next != null && compare(next.obj.key, to) < 0 ? next : null;
+			}
+		};
+	}
+	
+	/**
+	 * Iterator that holds only the node it will return next and steps with advance().
+	 */
+	abstract class Cursor implements Iterator<V> {
+		
+		TreeNode<Entry<K, V>> next;
+		
+		Cursor(TreeNode<Entry<K, V>> first) {
+			next = first;
+		}
+		
+		/**
+		 * Returns the node visited after node, or null if node is the last.
+		 */
+		abstract TreeNode<Entry<K, V>> advance(TreeNode<Entry<K, V>> node);
+		
+		public boolean hasNext() {
+			return next != null;
+		}
+		
+		public V next() {
+			if(next == null) {
+				throw new NoSuchElementException();
+			}
+			V out = next.obj.value;
+			next = advance(next);
+			return out;
+		}
+	}
+	
+	/**
+	 * Returns a spliterator over the values of this tree in key order. It splits at subtree
+	 * boundaries and knows the exact size of every piece, so parallel streams divide the tree
+	 * evenly when it is balanced. It must not be used after the tree is modified.
+	 */
+	public Spliterator<V> spliterator() {
+		return new Projection<V>(new Nodes(root), false);
+	}
+	
+	/**
+	 * Returns a sequential stream over the values of this tree in key order.
+	 */
+	public Stream<V> stream() {
+		return StreamSupport.stream(spliterator(), false);
+	}
+	
+	/**
+	 * Returns a parallel stream over the values of this tree in key order, for aggregations
+	 * such as forEach() and reduce() that use several cores.
+	 */
+	public Stream<V> parallelStream() {
+		return StreamSupport.stream(spliterator(), true);
+	}
+	
+	/**
+	 * Returns a parallel stream over the keys of this tree in increasing order.
+	 */
+	public Stream<K> parallelKeyStream() {
+		return StreamSupport.stream(new Projection<K>(new Nodes(root), true), true);
+	}
+	
+	/**
+	 * Returns a new tree with the same keys as this one, each mapped to f applied to its
+	 * value. The entries are gathered and mapped in parallel by fork/join tasks over subtrees,
+	 * and the new tree is built perfectly balanced, whatever the shape of this one.
+	 * @param f	function to apply to every value; called concurrently from several threads
+	 */
+	public <W> BinarySearchTree<K, W> map(Function<? super V, ? extends W> f) {
+		Object[] keys = new Object[size];
+		Object[] values = new Object[size];
+		new Gather<K, V>(new Nodes(root), 0, keys, values, f).invoke();
+		BinarySearchTree<K, W> out = new BinarySearchTree<K, W>(comparator);
+		out.root = new Build<K, W>(keys, values, 0, size, false).invoke();
+		out.size = size;
+		return out;
+	}
+	
+	/**
+	 * Builds a perfectly balanced tree from entries sorted by key, such as the output of
+	 * Arrays.parallelSort(), in O(n) work. Subtrees are built in parallel by fork/join tasks.
+	 * Subtree counts and heights are filled in, so the result is also a valid AVL tree.
+	 * @param keys		keys in strictly increasing order
+	 * @param values	values, values[i] belonging to keys[i]
+	 * @throws IllegalArgumentException	if the arrays differ in length or the keys are not
+	 * 									strictly increasing
+	 */
+	public static <K extends Comparable, V> BinarySearchTree<K, V> fromSorted(K[] keys,
+			V[] values) {
+		if(keys.length != values.length) {
+			throw new IllegalArgumentException("keys and values differ in length");
+		}
+		BinarySearchTree<K, V> out = new BinarySearchTree<K, V>();
+		out.root = new Build<K, V>(keys, values, 0, keys.length, true).invoke();
+		out.size = keys.length;
+		return out;
+	}
+	
+	/**
+	 * Spliterator over the nodes of an in-order run made of a whole subtree low, then the node
+	 * mid, then a whole subtree high. Splitting hands off the larger of the two subtrees along
+	 * with whatever precedes it in the run, so every piece is again of this form. Once
+	 * traversal starts, the run is walked with successor() and no longer splits.
+	 */
+	class Nodes implements Spliterator<TreeNode<Entry<K, V>>> {
+		
+		TreeNode<Entry<K, V>> low;
+		TreeNode<Entry<K, V>> mid; //null once traversal has started
+		TreeNode<Entry<K, V>> high;
+		TreeNode<Entry<K, V>> next; //Next node to visit once traversal has started
+		long remaining;
+		
+		Nodes(TreeNode<Entry<K, V>> root) {
+			this(root == null ? null : root.left, root, root == null ? null : root.right);
+		}
+		
+		Nodes(TreeNode<Entry<K, V>> low, TreeNode<Entry<K, V>> mid, TreeNode<Entry<K, V>> high) {
+			this.low = low;
+			this.mid = mid;
+			this.high = high;
+			remaining = mid == null ? 0 : TreeNode.count(low) + 1 + TreeNode.count(high);
+		}
+		
+		public Nodes trySplit() {
+			if(mid == null) {
+				return null;
+			}
+			Nodes prefix;
+			if(TreeNode.count(low) > TreeNode.count(high)) {
+				prefix = new Nodes(low.left, low, low.right);
+				low = null;
+			} else if(high != null) {
+				prefix = new Nodes(low, mid, high.left);
+				low = null;
+				mid = high;
+				high = high.right;
+			} else {
+				return null;
+			}
+			remaining -= prefix.remaining;
+			return prefix;
+		}
+		
+		/**
+		 * Returns the next node of the run, or null if there are none left.
+		 */
+		TreeNode<Entry<K, V>> nextNode() {
+			if(mid != null) {
+				next = low != null ? low.first() : mid;
+				low = mid = high = null;
+			}
+			if(remaining == 0) {
+				return null;
+			}
+			TreeNode<Entry<K, V>> out = next;
+			next = --remaining > 0 ? out.successor() : null;
+			return out;
+		}
+		
+		public boolean tryAdvance(Consumer<? super TreeNode<Entry<K, V>>> action) {
+			TreeNode<Entry<K, V>> node = nextNode();
+			if(node == null) {
+				return false;
+			}
+			action.accept(node);
+			return true;
+		}
+		
+		public long estimateSize() {
+			return remaining;
+		}
+		
+		public int characteristics() {
+			return ORDERED | SIZED | SUBSIZED | DISTINCT | NONNULL;
+		}
+	}
+	
+	/**
+	 * Spliterator over the keys or the values of the nodes of a Nodes spliterator.
+	 */
+	class Projection<T> implements Spliterator<T> {
+		
+		final Nodes nodes;
+		final boolean keys;
+		
+		Projection(Nodes nodes, boolean keys) {
+			this.nodes = nodes;
+			this.keys = keys;
+		}
+		
+		@SuppressWarnings("unchecked")
+		public boolean tryAdvance(Consumer<? super T> action) {
+			TreeNode<Entry<K, V>> node = nodes.nextNode();
+			if(node == null) {
+				return false;
+			}
+			action.accept((T)(keys ? node.obj.key : node.obj.value));
+			return true;
+		}
+		
+		@SuppressWarnings("unchecked")
+		public void forEachRemaining(Consumer<? super T> action) {
+			for(TreeNode<Entry<K, V>> node = nodes.nextNode(); node != null;
+					node = nodes.nextNode()) {
+				action.accept((T)(keys ? node.obj.key : node.obj.value));
+			}
+		}
+		
+		public Spliterator<T> trySplit() {
+			Nodes prefix = nodes.trySplit();
+			return prefix == null ? null : new Projection<T>(prefix, keys);
+		}
+		
+		public long estimateSize() {
+			return nodes.estimateSize();
+		}
+		
+		public int characteristics() {
+			return keys ? ORDERED | SIZED | SUBSIZED | DISTINCT | SORTED | NONNULL
+					: ORDERED | SIZED | SUBSIZED;
+		}
+		
+		@SuppressWarnings("unchecked")
+		public Comparator<? super T> getComparator() {
+			if(keys) {
+				return (Comparator<? super T>)comparator; //null for natural ordering
+			}
+			throw new IllegalStateException();
+		}
+	}
+	
+	/**
+	 * Fork/join task that copies the keys of a run of nodes, and f applied to their values,
+	 * into arrays starting at offset. Splits off and forks pieces of the run until what is
+	 * left is small enough to copy directly.
+	 */
+	@SuppressWarnings("serial") //Tasks are never serialized
+	private static class Gather<K extends Comparable, V> extends RecursiveAction {
+		
+		final BinarySearchTree<K, V>.Nodes nodes;
+		final int offset;
+		final Object[] keys;
+		final Object[] values;
+		final Function<? super V, ?> f;
+		
+		Gather(BinarySearchTree<K, V>.Nodes nodes, int offset, Object[] keys, Object[] values,
+				Function<? super V, ?> f) {
+			this.nodes = nodes;
+			this.offset = offset;
+			this.keys = keys;
+			this.values = values;
+			this.f = f;
+		}
+		
+		protected void compute() {
+			ArrayList<Gather<K, V>> forked = new ArrayList<Gather<K, V>>();
+			int at = offset;
+			BinarySearchTree<K, V>.Nodes prefix;
+			while(nodes.estimateSize() > PARALLEL_THRESHOLD
+					&& (prefix = nodes.trySplit()) != null) {
+				Gather<K, V> task = new Gather<K, V>(prefix, at, keys, values, f);
+				at += (int)prefix.estimateSize(); //Before the fork starts consuming prefix
+				task.fork();
+				forked.add(task);
+			}
+			for(TreeNode<Entry<K, V>> node = nodes.nextNode(); node != null;
+					node = nodes.nextNode()) {
+				keys[at] = node.obj.key;
+				values[at++] = f.apply(node.obj.value);
+			}
+			for(Gather<K, V> task : forked) {
+				task.join();
+			}
+		}
+	}
+	
+	/**
+	 * Fork/join task that builds a perfectly balanced subtree from the entries in [lo, hi) of
+	 * sorted arrays, building the two halves in parallel while the range is large.
+	 */
+	@SuppressWarnings("serial") //Tasks are never serialized
+	private static class Build<K extends Comparable, V>
+			extends RecursiveTask<TreeNode<Entry<K, V>>> {
+		
+		final Object[] keys;
+		final Object[] values;
+		final int lo;
+		final int hi;
+		final boolean check; //Whether to check that keys are increasing
+		
+		Build(Object[] keys, Object[] values, int lo, int hi, boolean check) {
+			this.keys = keys;
+			this.values = values;
+			this.lo = lo;
+			this.hi = hi;
+			this.check = check;
+		}
+		
+		protected TreeNode<Entry<K, V>> compute() {
+			if(hi - lo <= PARALLEL_THRESHOLD) {
+				return build(lo, hi);
+			}
+			int mid = (lo + hi) >>> 1;
+			Build<K, V> left = new Build<K, V>(keys, values, lo, mid, check);
+			left.fork();
+			TreeNode<Entry<K, V>> right =
+					new Build<K, V>(keys, values, mid + 1, hi, check).compute();
+			return link(mid, left.join(), right);
+		}
+		
+		private TreeNode<Entry<K, V>> build(int lo, int hi) {
+			if(lo == hi) {
+				return null;
+			}
+			int mid = (lo + hi) >>> 1;
+			return link(mid, build(lo, mid), build(mid + 1, hi));
+		}
+		
+		/**
+		 * Returns a new node for entry i with the given subtrees, filling in its count and
+		 * height.
+		 */
+		@SuppressWarnings("unchecked")
+		private TreeNode<Entry<K, V>> link(int i, TreeNode<Entry<K, V>> left,
+				TreeNode<Entry<K, V>> right) {
+			if(check && i > 0 && ((K)keys[i - 1]).compareTo(keys[i]) >= 0) {
+				throw new IllegalArgumentException("keys are not in increasing order");
+			}
+			Entry<K, V> ent = new Entry<K, V>((K)keys[i], (V)values[i]);
+			TreeNode<Entry<K, V>> node = new TreeNode<Entry<K, V>>(ent, null, left, right);
+			if(left != null) {
+				left.parent = node;
+			}
+			if(right != null) {
+				right.parent = node;
+			}
+			node.count = TreeNode.count(left) + 1 + TreeNode.count(right);
+			node.height = 1 + Math.max(left == null ? 0 : left.height,
+					right == null ? 0 : right.height);
+			return node;
+		}
+	}
+	
 	/**
 	 * Returns a String representation of this BST; displays values of nodes.
 	 * (<left-subtree>) root (<right-subtree>)
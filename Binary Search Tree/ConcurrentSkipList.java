@@ -0,0 +1,407 @@
+package bstree;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+
+import list.LinkedList;
+
+/**
+ * Lock-free ordered map implemented as a skip list, safe for use from any number of threads.
+ * Each node sits on the bottom list and on a random number of the lists above it, so a search
+ * skips along the upper lists and drops down, taking expected O(log n) steps.
+ *
+ * find, insert and remove are linearizable. Nodes are never locked: a node is removed
+ * logically by setting its value to null with a compare-and-set, then marked on every level
+ * so that no new node can be linked after it, and finally unlinked by any thread whose search
+ * passes it. Iterators are weakly consistent: they never throw, they see every entry present
+ * for the whole iteration, and they may or may not see entries inserted or removed while they
+ * run.
+ * @param <K>	type of key objects to be used
+ * @param <V>	type of value objects to be used
+ */
+public class ConcurrentSkipList<K extends Comparable, V> implements Iterable<V> {
+
+	private static final int MAX_LEVEL = 32;
+	@SuppressWarnings("rawtypes")
+	private static final AtomicReferenceFieldUpdater<Node, Object> VALUE =
+			AtomicReferenceFieldUpdater.newUpdater(Node.class, Object.class, "value");
+
+	private final Node<K, V> head = new Node<K, V>(null, null, MAX_LEVEL);
+	private final LongAdder size = new LongAdder();
+
+	/**
+	 * Skip list node. next holds the successor on each level, or a Marked wrapping it once the
+	 * node is being removed, after which the successor on that level must not change.
+	 */
+	private static final class Node<K, V> {
+		final K key;
+		volatile V value; //null once the node has been logically removed
+		final AtomicReferenceArray<Object> next;
+
+		Node(K key, V value, int levels) {
+			this.key = key;
+			this.value = value;
+			next = new AtomicReferenceArray<Object>(levels);
+		}
+
+		int levels() {
+			return next.length();
+		}
+
+		/**
+		 * Returns the successor on a level, whether or not the link is marked.
+		 */
+		Node<K, V> next(int level) {
+			return successor(next.get(level));
+		}
+
+		/**
+		 * Returns the successor held by a link read from next, so that the successor and the
+		 * mark can be taken from one read.
+		 */
+		@SuppressWarnings("unchecked")
+		static <K, V> Node<K, V> successor(Object link) {
+			return (Node<K, V>)(link instanceof Marked ? ((Marked)link).node : link);
+		}
+
+		/**
+		 * Changes the successor on a level from expect to update, failing if the link is
+		 * marked or no longer points to expect.
+		 */
+		boolean casNext(int level, Node<K, V> expect, Node<K, V> update) {
+			return next.compareAndSet(level, expect, update);
+		}
+
+		@SuppressWarnings("unchecked")
+		boolean casValue(V expect, V update) {
+			return VALUE.compareAndSet(this, expect, update);
+		}
+
+		/**
+		 * Marks the link on every level, top down, so that nothing more can be linked after
+		 * this node.
+		 */
+		void mark() {
+			for(int level = levels() - 1; level >= 0; level--) {
+				while(true) {
+					Object succ = next.get(level);
+					if(succ instanceof Marked
+							|| next.compareAndSet(level, succ, new Marked(succ))) {
+						break;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * A marked link: the successor of a node that is being removed.
+	 */
+	private static final class Marked {
+		final Object node;
+
+		Marked(Object node) {
+			this.node = node;
+		}
+	}
+
+	/**
+	 * Test code.
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		final ConcurrentSkipList<Integer, Integer> list =
+				new ConcurrentSkipList<Integer, Integer>();
+		Thread[] threads = new Thread[4];
+		for(int t = 0; t < threads.length; t++) {
+			final int offset = t;
+			threads[t] = new Thread() {
+				public void run() {
+					for(int i = offset; i < 1000; i += 4) {
+						list.insert(i, i);
+					}
+					for(int i = offset; i < 1000; i += 8) {
+						list.remove(i);
+					}
+				}
+			};
+			threads[t].start();
+		}
+		for(Thread thread : threads) {
+			thread.join();
+		}
+		System.out.println(list.size() + " " + list.find(1) + " " + list.find(8));
+		Iterator<Integer> range = list.range(10, 20);
+		while(range.hasNext()) {
+			System.out.print(range.next() + " ");
+		}
+		System.out.println();
+	}
+
+	/**
+	 * Returns the number of entries in this map. The count is exact only when no updates are
+	 * in progress.
+	 */
+	public int size() {
+		return (int)size.sum();
+	}
+
+	/**
+	 * Tests if this map is empty.
+	 */
+	public boolean isEmpty() {
+		return !iterator().hasNext();
+	}
+
+	/**
+	 * Finds the value associated with the specified key. Takes no locks and never writes.
+	 * @param key	the key to search for
+	 * @return		the value associated with key; null if key is not found in this map
+	 */
+	@SuppressWarnings("unchecked")
+	public V find(K key) {
+		Node<K, V> node = first(key);
+		return node != null && key.compareTo(node.key) == 0 ? node.value : null;
+	}
+
+	/**
+	 * Inserts an entry into this map; if an entry with the key already exists, its value is
+	 * replaced.
+	 * @param key	key of entry to insert
+	 * @param value	value of entry to insert; must not be null
+	 * @return		the value previously associated with key; null if there was none
+	 */
+	public V insert(K key, V value) {
+		if(value == null) {
+			throw new NullPointerException();
+		}
+		@SuppressWarnings("unchecked")
+		Node<K, V>[] preds = new Node[MAX_LEVEL];
+		@SuppressWarnings("unchecked")
+		Node<K, V>[] succs = new Node[MAX_LEVEL];
+		Node<K, V> node = null;
+		while(true) {
+			Node<K, V> found = search(key, preds, succs);
+			if(found != null) {
+				V old = found.value;
+				if(old != null && found.casValue(old, value)) {
+					return old;
+				}
+				if(old == null) {
+					found.mark(); //Being removed; make sure it is unlinked before retrying
+				}
+				continue;
+			}
+			if(node == null) {
+				node = new Node<K, V>(key, value, randomLevels());
+			}
+			node.next.set(0, succs[0]);
+			if(preds[0].casNext(0, succs[0], node)) {
+				break;
+			}
+		}
+		size.increment();
+		link:
+		for(int level = 1; level < node.levels(); level++) {
+			while(true) {
+				Node<K, V> succ = succs[level];
+				Node<K, V> current = node.next(level);
+				if(!node.casNext(level, current, succ)) {
+					break link; //A remove has started, so stop linking further levels
+				}
+				if(preds[level].casNext(level, succ, node)) {
+					break;
+				}
+				search(key, preds, succs);
+			}
+		}
+		if(node.value == null) {
+			search(key, preds, succs); //Removed while linking; unlink any levels added late
+		}
+		return null;
+	}
+
+	/**
+	 * Removes the entry with the specified key; returns the value associated with the key, or
+	 * null if the key was not found.
+	 * @param key	the key of the entry to remove
+	 * @return		the value associated with key; null if key is not in the map
+	 */
+	public V remove(K key) {
+		@SuppressWarnings("unchecked")
+		Node<K, V>[] preds = new Node[MAX_LEVEL];
+		@SuppressWarnings("unchecked")
+		Node<K, V>[] succs = new Node[MAX_LEVEL];
+		Node<K, V> found = search(key, preds, succs);
+		if(found == null) {
+			return null;
+		}
+		while(true) {
+			V old = found.value;
+			if(old == null) {
+				return null; //Another thread removed it first
+			}
+			if(found.casValue(old, null)) {
+				size.decrement();
+				found.mark();
+				search(key, preds, succs);
+				return old;
+			}
+		}
+	}
+
+	/**
+	 * Returns a LinkedList of the values in this map, in key order.
+	 */
+	public LinkedList<V> inOrder() {
+		LinkedList<V> out = new LinkedList<V>();
+		for(V value : this) {
+			out.add(value);
+		}
+		return out;
+	}
+
+	/**
+	 * Returns a weakly consistent iterator over the values in this map, in key order.
+	 */
+	public Iterator<V> iterator() {
+		return new ListIterator(first(null), null);
+	}
+
+	/**
+	 * Returns a weakly consistent iterator over the values of the entries with keys in
+	 * [from, to), in key order.
+	 */
+	public Iterator<V> range(K from, K to) {
+		return new ListIterator(first(from), to);
+	}
+
+	/**
+	 * Iterator that walks the bottom list, skipping nodes that have been removed.
+	 */
+	private class ListIterator implements Iterator<V> {
+
+		private Node<K, V> node;
+		private V value;
+		private final K to; //Exclusive upper bound; null for none
+
+		ListIterator(Node<K, V> node, K to) {
+			this.to = to;
+			advance(node);
+		}
+
+		/**
+		 * Moves to the first live node at or after n within the bound.
+		 */
+		@SuppressWarnings("unchecked")
+		private void advance(Node<K, V> n) {
+			for(; n != null; n = n.next(0)) {
+				if(to != null && to.compareTo(n.key) <= 0) {
+					break;
+				}
+				value = n.value;
+				if(value != null) {
+					node = n;
+					return;
+				}
+			}
+			node = null;
+			value = null;
+		}
+
+		public boolean hasNext() {
+			return node != null;
+		}
+
+		public V next() {
+			if(node == null) {
+				throw new NoSuchElementException();
+			}
+			V out = value;
+			advance(node.next(0));
+			return out;
+		}
+
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	/**
+	 * Returns the first node on the bottom list with key at least from, or the first node if
+	 * from is null. Steps over nodes being removed rather than descending from them, and never
+	 * writes. The node returned may have been removed since.
+	 */
+	@SuppressWarnings("unchecked")
+	private Node<K, V> first(K from) {
+		Node<K, V> pred = head;
+		Node<K, V> curr = null;
+		for(int level = MAX_LEVEL - 1; level >= 0; level--) {
+			curr = pred.next(level);
+			while(curr != null) {
+				Object link = curr.next.get(level);
+				Node<K, V> succ = Node.successor(link);
+				if(link instanceof Marked) { //Step over curr, which is being removed
+					curr = succ;
+					continue;
+				}
+				if(from == null || from.compareTo(curr.key) <= 0) {
+					break;
+				}
+				pred = curr;
+				curr = succ;
+			}
+		}
+		return curr;
+	}
+
+	/**
+	 * Fills preds and succs with, on each level, the last node with a key less than key and
+	 * the node after it, unlinking every marked node passed on the way. Returns the node on
+	 * the bottom list with key, or null if there is none.
+	 */
+	@SuppressWarnings("unchecked")
+	private Node<K, V> search(K key, Node<K, V>[] preds, Node<K, V>[] succs) {
+		retry:
+		while(true) {
+			Node<K, V> pred = head;
+			for(int level = MAX_LEVEL - 1; level >= 0; level--) {
+				Node<K, V> curr = pred.next(level);
+				while(curr != null) {
+					Object link = curr.next.get(level);
+					while(link instanceof Marked) { //Unlink curr, which is being removed
+						Node<K, V> succ = Node.successor(link);
+						if(!pred.casNext(level, curr, succ)) {
+							continue retry; //pred changed or is being removed itself
+						}
+						curr = succ;
+						if(curr == null) {
+							break;
+						}
+						link = curr.next.get(level);
+					}
+					if(curr == null || key.compareTo(curr.key) <= 0) {
+						break;
+					}
+					pred = curr;
+					curr = Node.successor(link);
+				}
+				preds[level] = pred;
+				succs[level] = curr;
+			}
+			Node<K, V> found = succs[0];
+			return found != null && key.compareTo(found.key) == 0 ? found : null;
+		}
+	}
+
+	/**
+	 * Returns a random number of levels between 1 and MAX_LEVEL, each further level with
+	 * probability 1/2.
+	 */
+	private static int randomLevels() {
+		int bits = ThreadLocalRandom.current().nextInt();
+		return Math.min(Integer.numberOfTrailingZeros(bits) + 1, MAX_LEVEL);
+	}
+}
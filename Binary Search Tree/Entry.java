@@ -14,13 +14,6 @@ class Entry<K extends Comparable, V> implements Comparable<Entry<K, V>> {
 	K key;
 	V value;
 	
-	/**
-	 * Constructor used for searching based on key.
-	 */
-	Entry(K key) {
-		this.key = key;
-	}
-	
 	/**
 	 * Constructs a new Entry with specified key and value
 	 * @param key	key to be used
@@ -0,0 +1,287 @@
+package bstree;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import list.LinkedList;
+
+/**
+ * AVL tree from primitive long keys to object values. Each node holds its key inline as a
+ * long, so find, insert and remove neither box the key nor go through compareTo(), and find
+ * and remove allocate nothing. Balancing follows AVLTree, so find, insert and remove take
+ * O(log n) time.
+ * @param <V>	type of value objects to be used
+ */
+public class LongObjectAVLTree<V> implements Iterable<V> {
+
+	private static final int MAX_HEIGHT = 64; //Above the height of any AVL tree of an int size
+
+	private Node<V> root;
+	private int size;
+	@SuppressWarnings("unchecked")
+	private final Node<V>[] path = new Node[MAX_HEIGHT]; //Ancestors visited by remove()
+
+	/**
+	 * Tree node with an inline key.
+	 */
+	private static final class Node<V> {
+		final long key;
+		V value;
+		Node<V> left;
+		Node<V> right;
+		int height = 1; //Height of the subtree rooted here
+
+		Node(long key, V value) {
+			this.key = key;
+			this.value = value;
+		}
+	}
+
+	/**
+	 * Test code.
+	 */
+	public static void main(String[] args) {
+		LongObjectAVLTree<String> tree = new LongObjectAVLTree<String>();
+		tree.insert(3, "my");
+		tree.insert(1, "Hello");
+		tree.insert(5, "is");
+		tree.insert(7, "Kushal");
+		tree.insert(4, "name");
+		tree.remove(3);
+		System.out.println(tree.inOrder() + " " + tree.size() + " " + tree.height() + " "
+				+ tree.find(4) + " " + tree.find(3));
+	}
+
+	/**
+	 * Returns the number of entries in this tree.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Tests if this tree is empty.
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns the number of nodes on the longest path from the root to a leaf; 0 if this
+	 * tree is empty.
+	 */
+	public int height() {
+		return height(root);
+	}
+
+	/**
+	 * Finds the value associated with the specified key.
+	 * @param key	the key to search for
+	 * @return		the value associated with key; null if key is not found in this tree
+	 */
+	public V find(long key) {
+		Node<V> node = root;
+		while(node != null) {
+			if(key < node.key) {
+				node = node.left;
+			} else if(key > node.key) {
+				node = node.right;
+			} else {
+				return node.value;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Tests if this tree holds an entry with the specified key.
+	 */
+	public boolean containsKey(long key) {
+		Node<V> node = root;
+		while(node != null && node.key != key) {
+			node = key < node.key ? node.left : node.right;
+		}
+		return node != null;
+	}
+
+	/**
+	 * Inserts an entry into this tree; if an entry with the key already exists, its value is
+	 * replaced.
+	 * @param key	key of entry to insert
+	 * @param value	value of entry to insert
+	 */
+	public void insert(long key, V value) {
+		root = insert(root, key, value);
+	}
+
+	/**
+	 * Removes the entry with the specified key; returns the value associated with the key, or
+	 * null if the key was not found.
+	 * @param key	the key of the entry to remove
+	 * @return		the value associated with key; null if key is not in the tree
+	 */
+	public V remove(long key) {
+		int depth = 0;
+		Node<V> node = root;
+		while(node != null && node.key != key) {
+			path[depth++] = node;
+			node = key < node.key ? node.left : node.right;
+		}
+		if(node == null) {
+			return null;
+		}
+		if(node.left == null || node.right == null) {
+			replace(depth == 0 ? null : path[depth - 1], node,
+					node.left != null ? node.left : node.right);
+		} else { //Move the successor into node's place
+			int at = depth;
+			path[depth++] = node;
+			Node<V> successor = node.right;
+			while(successor.left != null) {
+				path[depth++] = successor;
+				successor = successor.left;
+			}
+			replace(path[depth - 1], successor, successor.right);
+			successor.left = node.left;
+			successor.right = node.right;
+			replace(at == 0 ? null : path[at - 1], node, successor);
+			path[at] = successor;
+		}
+		for(int i = depth - 1; i >= 0; i--) { //Rebalance the ancestors, lowest first
+			Node<V> balanced = balance(path[i]);
+			if(balanced != path[i]) {
+				replace(i == 0 ? null : path[i - 1], path[i], balanced);
+			}
+			path[i] = null;
+		}
+		size--;
+		return node.value;
+	}
+
+	/**
+	 * Returns a LinkedList of the values in this tree, in key order.
+	 */
+	public LinkedList<V> inOrder() {
+		LinkedList<V> out = new LinkedList<V>();
+		for(V value : this) {
+			out.add(value);
+		}
+		return out;
+	}
+
+	/**
+	 * Returns an iterator over the values in this tree, in key order. It must not be used
+	 * after the tree is modified.
+	 */
+	public Iterator<V> iterator() {
+		final ArrayDeque<Node<V>> path = new ArrayDeque<Node<V>>();
+		for(Node<V> node = root; node != null; node = node.left) {
+			path.push(node);
+		}
+		return new Iterator<V>() {
+			public boolean hasNext() {
+				return !path.isEmpty();
+			}
+
+			public V next() {
+				if(path.isEmpty()) {
+					throw new NoSuchElementException();
+				}
+				Node<V> node = path.pop();
+				for(Node<V> n = node.right; n != null; n = n.left) {
+					path.push(n);
+				}
+				return node.value;
+			}
+
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	/**
+	 * Returns the root of the subtree at node with key mapped to value, rebalanced.
+	 */
+	private Node<V> insert(Node<V> node, long key, V value) {
+		if(node == null) {
+			size++;
+			return new Node<V>(key, value);
+		}
+		if(key < node.key) {
+			node.left = insert(node.left, key, value);
+		} else if(key > node.key) {
+			node.right = insert(node.right, key, value);
+		} else {
+			node.value = value;
+			return node;
+		}
+		return balance(node);
+	}
+
+	/**
+	 * Makes replacement the child of parent in place of child, or the root if parent is null.
+	 */
+	private void replace(Node<V> parent, Node<V> child, Node<V> replacement) {
+		if(parent == null) {
+			root = replacement;
+		} else if(parent.left == child) {
+			parent.left = replacement;
+		} else {
+			parent.right = replacement;
+		}
+	}
+
+	/**
+	 * Updates the height of node and rotates if the heights of its subtrees differ by two;
+	 * returns the new root of the subtree.
+	 */
+	private static <V> Node<V> balance(Node<V> node) {
+		int balance = height(node.left) - height(node.right);
+		if(balance > 1) {
+			if(height(node.left.left) < height(node.left.right)) {
+				node.left = rotateLeft(node.left);
+			}
+			return rotateRight(node);
+		} else if(balance < -1) {
+			if(height(node.right.right) < height(node.right.left)) {
+				node.right = rotateRight(node.right);
+			}
+			return rotateLeft(node);
+		}
+		updateHeight(node);
+		return node;
+	}
+
+	/**
+	 * Rotates the subtree rooted at node counterclockwise and returns its new root.
+	 */
+	private static <V> Node<V> rotateLeft(Node<V> node) {
+		Node<V> pivot = node.right;
+		node.right = pivot.left;
+		pivot.left = node;
+		updateHeight(node);
+		updateHeight(pivot);
+		return pivot;
+	}
+
+	/**
+	 * Rotates the subtree rooted at node clockwise and returns its new root.
+	 */
+	private static <V> Node<V> rotateRight(Node<V> node) {
+		Node<V> pivot = node.left;
+		node.left = pivot.right;
+		pivot.right = node;
+		updateHeight(node);
+		updateHeight(pivot);
+		return pivot;
+	}
+
+	private static int height(Node<?> node) {
+		return node == null ? 0 : node.height;
+	}
+
+	private static void updateHeight(Node<?> node) {
+		node.height = Math.max(height(node.left), height(node.right)) + 1;
+	}
+}
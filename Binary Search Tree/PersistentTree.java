@@ -0,0 +1,272 @@
+package bstree;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import list.LinkedList;
+
+/**
+ * Persistent binary search tree: nodes are never modified once built, and every update copies
+ * only the O(log n) nodes on the path from the root to the change, sharing the rest with the
+ * previous version. The tree is kept AVL-balanced.
+ *
+ * snapshot() returns in O(1) time an independent tree holding the current version. Versions
+ * never change underneath their readers, so readers need no locking, and updates to either
+ * tree afterwards are not seen by the other. Updates to one tree from several threads are
+ * safe: each update builds its new version off the current root and installs it with a
+ * compare-and-set, retrying if another update got there first.
+ * @param <K>	type of key objects to be used
+ * @param <V>	type of value objects to be used
+ */
+public class PersistentTree<K extends Comparable, V> implements Iterable<V> {
+
+	private final AtomicReference<Node<K, V>> root;
+
+	/**
+	 * Immutable tree node.
+	 */
+	private static final class Node<K, V> {
+		final K key;
+		final V value;
+		final Node<K, V> left;
+		final Node<K, V> right;
+		final int height; //Height of the subtree rooted here
+		final int count; //Number of nodes in the subtree rooted here
+
+		Node(K key, V value, Node<K, V> left, Node<K, V> right) {
+			this.key = key;
+			this.value = value;
+			this.left = left;
+			this.right = right;
+			height = 1 + Math.max(height(left), height(right));
+			count = 1 + count(left) + count(right);
+		}
+	}
+
+	/**
+	 * Test code.
+	 */
+	public static void main(String[] args) {
+		PersistentTree<Integer, String> tree = new PersistentTree<Integer, String>();
+		tree.insert(3, "my");
+		tree.insert(1, "Hello");
+		tree.insert(5, "is");
+		tree.insert(4, "name");
+		PersistentTree<Integer, String> old = tree.snapshot();
+		tree.remove(3);
+		tree.insert(7, "Kushal");
+		System.out.println(old.inOrder() + " " + old.size());
+		System.out.println(tree.inOrder() + " " + tree.size());
+	}
+
+	/**
+	 * Constructs a new persistent tree with no entries.
+	 */
+	public PersistentTree() {
+		this(null);
+	}
+
+	private PersistentTree(Node<K, V> root) {
+		this.root = new AtomicReference<Node<K, V>>(root);
+	}
+
+	/**
+	 * Returns a tree holding the current version of this tree, in O(1) time. Later updates to
+	 * either tree do not affect the other.
+	 */
+	public PersistentTree<K, V> snapshot() {
+		return new PersistentTree<K, V>(root.get());
+	}
+
+	/**
+	 * Returns the number of entries in this tree.
+	 */
+	public int size() {
+		return count(root.get());
+	}
+
+	/**
+	 * Returns the number of nodes on the longest path from the root to a leaf; 0 if this
+	 * tree is empty.
+	 */
+	public int height() {
+		return height(root.get());
+	}
+
+	/**
+	 * Finds the value associated with the specified key.
+	 * @param key	the key to search for
+	 * @return		the value associated with key; null if key is not found in this tree
+	 */
+	public V find(K key) {
+		Node<K, V> node = lookup(root.get(), key);
+		return node == null ? null : node.value;
+	}
+
+	/**
+	 * Inserts an entry into this tree; if an entry with the key already exists, its value is
+	 * replaced.
+	 * @param key	key of entry to insert
+	 * @param value	value of entry to insert
+	 */
+	public void insert(K key, V value) {
+		while(true) {
+			Node<K, V> current = root.get();
+			if(root.compareAndSet(current, insert(current, key, value))) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Removes the entry with the specified key; returns the value associated with the key, or
+	 * null if the key was not found.
+	 * @param key	the key of the entry to remove
+	 * @return		the value associated with key; null if key is not in the tree
+	 */
+	public V remove(K key) {
+		while(true) {
+			Node<K, V> current = root.get();
+			Node<K, V> node = lookup(current, key);
+			if(node == null) {
+				return null;
+			}
+			if(root.compareAndSet(current, remove(current, key))) {
+				return node.value;
+			}
+		}
+	}
+
+	/**
+	 * Returns a LinkedList of the values in this tree, in key order.
+	 */
+	public LinkedList<V> inOrder() {
+		LinkedList<V> out = new LinkedList<V>();
+		Iterator<V> it = iterator();
+		while(it.hasNext()) {
+			out.add(it.next());
+		}
+		return out;
+	}
+
+	/**
+	 * Returns an iterator over the values of the version current when it is created, in key
+	 * order.
+	 */
+	public Iterator<V> iterator() {
+		final ArrayDeque<Node<K, V>> path = new ArrayDeque<Node<K, V>>();
+		for(Node<K, V> node = root.get(); node != null; node = node.left) {
+			path.push(node);
+		}
+		return new Iterator<V>() {
+			public boolean hasNext() {
+				return !path.isEmpty();
+			}
+
+			public V next() {
+				if(path.isEmpty()) {
+					throw new NoSuchElementException();
+				}
+				Node<K, V> node = path.pop();
+				for(Node<K, V> n = node.right; n != null; n = n.left) {
+					path.push(n);
+				}
+				return node.value;
+			}
+
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	private static int height(Node<?, ?> node) {
+		return node == null ? 0 : node.height;
+	}
+
+	private static int count(Node<?, ?> node) {
+		return node == null ? 0 : node.count;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K extends Comparable, V> Node<K, V> lookup(Node<K, V> node, K key) {
+		while(node != null) {
+			int comp = key.compareTo(node.key);
+			if(comp == 0) {
+				return node;
+			}
+			node = comp < 0 ? node.left : node.right;
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the root of a copy of the subtree at node with key mapped to value.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <K extends Comparable, V> Node<K, V> insert(Node<K, V> node, K key, V value) {
+		if(node == null) {
+			return new Node<K, V>(key, value, null, null);
+		}
+		int comp = key.compareTo(node.key);
+		if(comp < 0) {
+			return balance(node.key, node.value, insert(node.left, key, value), node.right);
+		} else if(comp > 0) {
+			return balance(node.key, node.value, node.left, insert(node.right, key, value));
+		}
+		return new Node<K, V>(key, value, node.left, node.right);
+	}
+
+	/**
+	 * Returns the root of a copy of the subtree at node without key, which must be present.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <K extends Comparable, V> Node<K, V> remove(Node<K, V> node, K key) {
+		int comp = key.compareTo(node.key);
+		if(comp < 0) {
+			return balance(node.key, node.value, remove(node.left, key), node.right);
+		} else if(comp > 0) {
+			return balance(node.key, node.value, node.left, remove(node.right, key));
+		}
+		if(node.left == null) {
+			return node.right;
+		} else if(node.right == null) {
+			return node.left;
+		}
+		Node<K, V> successor = node.right;
+		while(successor.left != null) {
+			successor = successor.left;
+		}
+		return balance(successor.key, successor.value, node.left,
+				remove(node.right, successor.key));
+	}
+
+	/**
+	 * Returns a new node with the given entry and subtrees, rotating if the heights of the
+	 * subtrees differ by two.
+	 */
+	private static <K, V> Node<K, V> balance(K key, V value, Node<K, V> left, Node<K, V> right) {
+		if(height(left) > height(right) + 1) {
+			if(height(left.left) >= height(left.right)) { //Single right rotation
+				return new Node<K, V>(left.key, left.value, left.left,
+						new Node<K, V>(key, value, left.right, right));
+			}
+			Node<K, V> pivot = left.right; //Left-right double rotation
+			return new Node<K, V>(pivot.key, pivot.value,
+					new Node<K, V>(left.key, left.value, left.left, pivot.left),
+					new Node<K, V>(key, value, pivot.right, right));
+		}
+		if(height(right) > height(left) + 1) {
+			if(height(right.right) >= height(right.left)) { //Single left rotation
+				return new Node<K, V>(right.key, right.value,
+						new Node<K, V>(key, value, left, right.left), right.right);
+			}
+			Node<K, V> pivot = right.left; //Right-left double rotation
+			return new Node<K, V>(pivot.key, pivot.value,
+					new Node<K, V>(key, value, left, pivot.left),
+					new Node<K, V>(right.key, right.value, pivot.right, right.right));
+		}
+		return new Node<K, V>(key, value, left, right);
+	}
+}
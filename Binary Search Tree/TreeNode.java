@@ -1,5 +1,4 @@
 package bstree;
-import list.*;
 
 /**
  * Represents a single tree node within a binary search tree. The object held must be of a
@@ -13,6 +12,8 @@ class TreeNode<E extends Comparable> {
 	TreeNode<E> left;
 	TreeNode<E> right;
 	TreeNode<E> parent;
+	int height = 1; //Height of the subtree rooted here; set by AVLTree, build() and fromSorted()
+	int count = 1; //Number of nodes in the subtree rooted here
 	
 	/**
 	 * Constructs a new TreeNode without any children.
@@ -39,97 +40,126 @@ class TreeNode<E extends Comparable> {
 	}
 	
 	/**
-	 * Finds the node with key matching the specified key.
-	 * @param obj	key of node to search for
-	 * @return		the node contining key obj; null if no such node exists
+	 * Adds delta to the subtree count of every proper ancestor of this node.
 	 */
-	TreeNode<E> findNode(E obj) {
-		int comp = ((Comparable) this.obj).compareTo(obj);
-		if(comp == 0) {
-			return this;
-		} else if(comp > 0) { //Check left subtree
-			if(left != null) {
-				return left.findNode(obj);
-			} else {
-				return null;
-			}
-		} else { //Check right subtree
-			if(right != null) {
-				return right.findNode(obj);
-			} else {
-				return null;
-			}
+	void adjustCounts(int delta) {
+		for(TreeNode<E> node = parent; node != null; node = node.parent) {
+			node.count += delta;
 		}
 	}
 	
 	/**
-	 * Inserts an object into the BST containing this node, or updates the object if it
-	 * is already in the tree.
-	 * @param newObj	new object to be inserted
-	 * @return			true if a new object was inserted; false otherwise
+	 * Recomputes the subtree count of this node from the counts of its children.
 	 */
-	boolean insert(E newObj) {
-		int comp = ((Comparable) obj).compareTo(newObj);
-		if(comp == 0) {
-			obj = newObj;
-			return false;
-		} else if(comp > 0) {
-			if(left != null) {
-				return left.insert(newObj);
-			} else {
-				left = new TreeNode<E>(newObj, this);
-				return true;
-			}
-		} else {
-			if(right != null) {
-				return right.insert(newObj);
-			} else {
-				right = new TreeNode<E>(newObj, this);
-				return true;
-			}
+	void updateCount() {
+		count = count(left) + count(right) + 1;
+	}
+	
+	/**
+	 * Returns the number of nodes in the specified subtree; 0 for an empty subtree.
+	 */
+	static int count(TreeNode<?> node) {
+		return node == null ? 0 : node.count;
+	}
+	
+	/**
+	 * Returns the leftmost node of the subtree rooted at this node.
+	 */
+	TreeNode<E> first() {
+		TreeNode<E> node = this;
+		while(node.left != null) {
+			node = node.left;
 		}
+		return node;
 	}
 	
 	/**
-	 * Populates the list soFar with the inorder traversal of the tree from this node.
-	 * @param soFar	The traversal so far
+	 * Returns the rightmost node of the subtree rooted at this node.
 	 */
-	void inOrder(LinkedList<E> soFar) {
-		if(left != null) {
-			left.inOrder(soFar);
+	TreeNode<E> last() {
+		TreeNode<E> node = this;
+		while(node.right != null) {
+			node = node.right;
 		}
-		soFar.add(obj);
+		return node;
+	}
+	
+	/**
+	 * Returns the node that follows this one in an inorder traversal; null if this is the
+	 * last node.
+	 */
+	TreeNode<E> successor() {
 		if(right != null) {
-			right.inOrder(soFar);
+			return right.first();
+		}
+		TreeNode<E> node = this;
+		while(node.parent != null && node == node.parent.right) {
+			node = node.parent;
 		}
+		return node.parent;
 	}
 	
 	/**
-	 * Populates the list soFar with the preorder traversal of the tree from this node.
-	 * @param soFar	The traversal so far
+	 * Returns the node that precedes this one in an inorder traversal; null if this is the
+	 * first node.
 	 */
-	void preOrder(LinkedList<E> soFar) {
-		soFar.add(obj);
+	TreeNode<E> predecessor() {
 		if(left != null) {
-			left.inOrder(soFar);
+			return left.last();
 		}
-		if(right != null) {
-			right.inOrder(soFar);
+		TreeNode<E> node = this;
+		while(node.parent != null && node == node.parent.left) {
+			node = node.parent;
 		}
+		return node.parent;
 	}
 	
 	/**
-	 * Populates the list soFar with the postorder traversal of the tree from this node.
-	 * @param soFar	The traversal so far
+	 * Returns the node that follows this one in a preorder traversal; null if this is the
+	 * last node.
 	 */
-	void postOrder(LinkedList<E> soFar) {
+	TreeNode<E> preOrderNext() {
 		if(left != null) {
-			left.inOrder(soFar);
+			return left;
 		}
 		if(right != null) {
-			right.inOrder(soFar);
+			return right;
+		}
+		TreeNode<E> node = this;
+		while(node.parent != null) {
+			if(node == node.parent.left && node.parent.right != null) {
+				return node.parent.right;
+			}
+			node = node.parent;
+		}
+		return null;
+	}
+	
+	/**
+	 * Returns the first node of a postorder traversal of the subtree rooted at this node.
+	 */
+	TreeNode<E> postOrderFirst() {
+		TreeNode<E> node = this;
+		while(true) {
+			if(node.left != null) {
+				node = node.left;
+			} else if(node.right != null) {
+				node = node.right;
+			} else {
+				return node;
+			}
+		}
+	}
+	
+	/**
+	 * Returns the node that follows this one in a postorder traversal; null if this is the
+	 * last node.
+	 */
+	TreeNode<E> postOrderNext() {
+		if(parent != null && this == parent.left && parent.right != null) {
+			return parent.right.postOrderFirst();
 		}
-		soFar.add(obj);
+		return parent;
 	}
 	
 	/**
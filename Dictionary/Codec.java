@@ -0,0 +1,58 @@
+package dict;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Converts objects to and from their serialized form, for structures that store or stream
+ * their entries as bytes.
+ * @param <T>	type of objects converted
+ */
+public interface Codec<T> {
+
+	/**
+	 * Codec for Strings, as UTF-8.
+	 */
+	Codec<String> STRING = new Codec<String>() {
+		public byte[] encode(String value) {
+			return value.getBytes(StandardCharsets.UTF_8);
+		}
+		public String decode(byte[] bytes) {
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+	};
+
+	/**
+	 * Codec for Integers, as 4 big-endian bytes.
+	 */
+	Codec<Integer> INTEGER = new Codec<Integer>() {
+		public byte[] encode(Integer value) {
+			return ByteBuffer.allocate(4).putInt(value).array();
+		}
+		public Integer decode(byte[] bytes) {
+			return ByteBuffer.wrap(bytes).getInt();
+		}
+	};
+
+	/**
+	 * Codec for Longs, as 8 big-endian bytes.
+	 */
+	Codec<Long> LONG = new Codec<Long>() {
+		public byte[] encode(Long value) {
+			return ByteBuffer.allocate(8).putLong(value).array();
+		}
+		public Long decode(byte[] bytes) {
+			return ByteBuffer.wrap(bytes).getLong();
+		}
+	};
+
+	/**
+	 * Returns the serialized form of value.
+	 */
+	byte[] encode(T value);
+
+	/**
+	 * Returns the object whose serialized form is bytes.
+	 */
+	T decode(byte[] bytes);
+}
@@ -0,0 +1,317 @@
+package dict;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe hash table. Each bucket holds an immutable chain of nodes that is replaced with
+ * a single compare-and-set on the bucket, so reads never lock and never see a chain in the
+ * middle of an update. Inserts prepend a node; removes copy the part of the chain in front of
+ * the removed node.
+ *
+ * The table doubles once it is three-quarters full. Reading the size means summing a striped
+ * counter, so an insert only checks it when it makes a chain of CHECK_CHAIN or more nodes. The
+ * table can pass the threshold unnoticed only while every chain is shorter than that, that is,
+ * by at most CHECK_CHAIN - 1 entries per bucket. Resizing is cooperative: the bucket array is
+ * split into strides that any writer may claim and migrate, and a migrated bucket is replaced
+ * by a forwarding node that sends readers and writers on to the new array.
+ * @param <K>	type of key objects to be used
+ * @param <V>	type of value objects to be used
+ */
+public class ConcurrentHashTable<K, V> implements Dictionary<K, V> {
+
+	private static final int MOVED = -1; //Hash of forwarding nodes
+	private static final int STRIDE = 64; //Buckets claimed at a time while resizing
+	private static final int CHECK_CHAIN = 3; //Chain length at which an insert checks the size
+	private static final int MAX_BUCKETS = 1 << 30;
+
+	private volatile AtomicReferenceArray<Node<K, V>> table;
+	private final AtomicReference<Transfer<K, V>> transfer = new AtomicReference<Transfer<K, V>>();
+	private final Object publishLock = new Object();
+	private final LongAdder n = new LongAdder(); //Size
+	private final int initialBuckets;
+
+	/**
+	 * Chain node. Immutable once published.
+	 */
+	private static class Node<K, V> extends Entry<K, V> {
+		final int hash;
+		final Node<K, V> next;
+		final int length; //Number of nodes in the chain starting here
+
+		Node(int hash, K key, V value, Node<K, V> next) {
+			super(key, value);
+			this.hash = hash;
+			this.next = next;
+			this.length = next == null ? 1 : next.length + 1;
+		}
+	}
+
+	/**
+	 * Placeholder for a bucket that has been migrated to a larger array.
+	 */
+	private static class Forward<K, V> extends Node<K, V> {
+		final AtomicReferenceArray<Node<K, V>> nextTable;
+
+		Forward(AtomicReferenceArray<Node<K, V>> nextTable) {
+			super(MOVED, null, null, null);
+			this.nextTable = nextTable;
+		}
+	}
+
+	/**
+	 * State of one resize, shared by every thread that helps with it.
+	 */
+	private static class Transfer<K, V> {
+		final AtomicReferenceArray<Node<K, V>> oldTable;
+		final AtomicReferenceArray<Node<K, V>> nextTable;
+		final Forward<K, V> forward;
+		final AtomicInteger nextStride = new AtomicInteger(); //First unclaimed bucket
+		final AtomicInteger remaining; //Buckets not yet migrated
+
+		Transfer(AtomicReferenceArray<Node<K, V>> oldTable) {
+			this.oldTable = oldTable;
+			this.nextTable = new AtomicReferenceArray<Node<K, V>>(oldTable.length() * 2);
+			this.forward = new Forward<K, V>(nextTable);
+			this.remaining = new AtomicInteger(oldTable.length());
+		}
+	}
+
+	/**
+	 * Construct a new empty hash table intended to hold roughly sizeEstimate entries without
+	 * resizing.
+	 * @param sizeEstimate	expected number of entries
+	 */
+	public ConcurrentHashTable(int sizeEstimate) {
+		int buckets = 16;
+		while(buckets - (buckets >>> 2) < sizeEstimate && buckets < MAX_BUCKETS) {
+			buckets <<= 1;
+		}
+		initialBuckets = buckets;
+		table = new AtomicReferenceArray<Node<K, V>>(buckets);
+	}
+
+	/**
+	 * Construct a new empty hash table with a default size.
+	 */
+	public ConcurrentHashTable() {
+		this(70);
+	}
+
+	/**
+	 * Spreads the bits of a hash code over the low bits used to pick a bucket, and clears the
+	 * sign bit so that no key hashes to MOVED.
+	 */
+	private static int spread(int code) {
+		int h = code * 0x9E3779B9;
+		return (h ^ (h >>> 16)) & 0x7fffffff;
+	}
+
+	/**
+	 * Returns the number of entries stored in the dictionary. The count is exact only while no
+	 * updates are in progress.
+	 */
+	public int size() {
+		return (int)n.sum();
+	}
+
+	/**
+	 * Tests if the dictionary is empty.
+	 */
+	public boolean isEmpty() {
+		return n.sum() == 0;
+	}
+
+	/**
+	 * Inserts a new entry with the specified key and value. Multiple entries with the same key
+	 * can coexist in the dictionary.
+	 * @param key	the key by which the entry can be retrieved
+	 * @param value	an arbitrary object
+	 * @return		an entry containing the key and value
+	 */
+	public Entry<K, V> insert(K key, V value) {
+		int h = spread(key.hashCode());
+		AtomicReferenceArray<Node<K, V>> tab = table;
+		while(true) {
+			int i = h & (tab.length() - 1);
+			Node<K, V> head = tab.get(i);
+			if(head != null && head.hash == MOVED) {
+				tab = helpTransfer(tab, (Forward<K, V>) head);
+				continue;
+			}
+			Node<K, V> node = new Node<K, V>(h, key, value, head);
+			if(tab.compareAndSet(i, head, node)) {
+				n.increment();
+				if(node.length >= CHECK_CHAIN && n.sum() > tab.length() - (tab.length() >>> 2)) {
+					startTransfer(tab);
+				}
+				return node;
+			}
+		}
+	}
+
+	/**
+	 * Search for an entry with the specified key without locking. If several entries have the
+	 * specified key, one is chosen arbitrarily.
+	 * @param key	the search key
+	 * @return		an entry containing the key and an associated value, or null if no entry
+	 * 				contains the specified key
+	 */
+	public Entry<K, V> find(K key) {
+		int h = spread(key.hashCode());
+		AtomicReferenceArray<Node<K, V>> tab = table;
+		Node<K, V> e = tab.get(h & (tab.length() - 1));
+		while(e != null) {
+			if(e.hash == MOVED) { //Bucket has moved; continue in the larger array
+				tab = ((Forward<K, V>) e).nextTable;
+				e = tab.get(h & (tab.length() - 1));
+				continue;
+			}
+			if(e.hash == h && e.key.equals(key)) {
+				return e;
+			}
+			e = e.next;
+		}
+		return null;
+	}
+
+	/**
+	 * Remove an entry with the specified key. If several entries have the specified key, one is
+	 * chosen arbitrarily.
+	 * @param key	the search key
+	 * @return		an entry containing the key and an associated value, or null if no entry
+	 * 				contains the specified key
+	 */
+	public Entry<K, V> remove(K key) {
+		int h = spread(key.hashCode());
+		AtomicReferenceArray<Node<K, V>> tab = table;
+		while(true) {
+			int i = h & (tab.length() - 1);
+			Node<K, V> head = tab.get(i);
+			if(head != null && head.hash == MOVED) {
+				tab = helpTransfer(tab, (Forward<K, V>) head);
+				continue;
+			}
+			Node<K, V> target = head;
+			while(target != null && !(target.hash == h && target.key.equals(key))) {
+				target = target.next;
+			}
+			if(target == null) {
+				return null;
+			}
+			if(tab.compareAndSet(i, head, unlink(head, target))) {
+				n.decrement();
+				return target;
+			}
+		}
+	}
+
+	/**
+	 * Returns a chain equal to the one starting at head with target left out. Nodes after
+	 * target are shared; nodes before it are copied.
+	 */
+	private static <K, V> Node<K, V> unlink(Node<K, V> head, Node<K, V> target) {
+		if(head == target) {
+			return target.next;
+		}
+		return new Node<K, V>(head.hash, head.key, head.value, unlink(head.next, target));
+	}
+
+	/**
+	 * Remove all entries from the dictionary. This is not atomic with respect to updates that
+	 * run concurrently with it; such updates may be lost.
+	 */
+	public void makeEmpty() {
+		synchronized(publishLock) {
+			transfer.set(null);
+			table = new AtomicReferenceArray<Node<K, V>>(initialBuckets);
+			n.reset();
+		}
+	}
+
+	/**
+	 * Begins doubling tab if no resize is already running and tab has fewer than MAX_BUCKETS
+	 * buckets, then helps to finish it.
+	 */
+	private void startTransfer(AtomicReferenceArray<Node<K, V>> tab) {
+		if(transfer.get() != null || table != tab || tab.length() == MAX_BUCKETS) {
+			return;
+		}
+		Transfer<K, V> t = new Transfer<K, V>(tab);
+		if(transfer.compareAndSet(null, t)) {
+			if(table != tab) { //A resize finished between the check and the claim
+				transfer.compareAndSet(t, null);
+				return;
+			}
+			help(t);
+		}
+	}
+
+	/**
+	 * Called by a writer that met a forwarding node in tab. Helps the resize in progress and
+	 * returns the array the writer should retry in.
+	 */
+	private AtomicReferenceArray<Node<K, V>> helpTransfer(AtomicReferenceArray<Node<K, V>> tab,
+			Forward<K, V> fwd) {
+		Transfer<K, V> t = transfer.get();
+		if(t != null && t.oldTable == tab) {
+			help(t);
+		}
+		return fwd.nextTable;
+	}
+
+	/**
+	 * Claims and migrates strides of buckets until none are left to claim. The thread that
+	 * migrates the last bucket publishes the new array.
+	 */
+	private void help(Transfer<K, V> t) {
+		int length = t.oldTable.length();
+		while(true) {
+			int start = t.nextStride.getAndAdd(STRIDE);
+			if(start >= length) {
+				return;
+			}
+			int end = Math.min(start + STRIDE, length);
+			for(int i = start; i < end; i++) {
+				migrate(t, i);
+			}
+			if(t.remaining.addAndGet(start - end) == 0) {
+				synchronized(publishLock) {
+					if(transfer.get() == t) {
+						table = t.nextTable;
+						transfer.set(null);
+					}
+				}
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Splits bucket i of the old array between buckets i and i + length of the new array, then
+	 * replaces it with the forwarding node. No other thread writes those two new buckets until
+	 * the forwarding node is visible.
+	 */
+	private void migrate(Transfer<K, V> t, int i) {
+		int length = t.oldTable.length();
+		while(true) {
+			Node<K, V> head = t.oldTable.get(i);
+			Node<K, V> lo = null;
+			Node<K, V> hi = null;
+			for(Node<K, V> e = head; e != null; e = e.next) {
+				if((e.hash & length) == 0) {
+					lo = new Node<K, V>(e.hash, e.key, e.value, lo);
+				} else {
+					hi = new Node<K, V>(e.hash, e.key, e.value, hi);
+				}
+			}
+			t.nextTable.set(i, lo);
+			t.nextTable.set(i + length, hi);
+			if(t.oldTable.compareAndSet(i, head, t.forward)) {
+				return;
+			}
+		}
+	}
+}
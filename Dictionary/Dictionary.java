@@ -71,4 +71,62 @@ public interface Dictionary<K, V> {
 
   public void makeEmpty();
 
+  /**
+   *  Insert an entry for each key in keys, with the value at the same index of
+   *  values.  Implementations may do the work in any order, but the result is
+   *  the same as calling insert() for each key in turn.
+   *
+   *  @param keys the keys by which the entries can be retrieved.
+   *  @param values an arbitrary object for each key.
+   *  @return the new entries, in the same order as keys.
+   **/
+
+  @SuppressWarnings("unchecked")
+  public default Entry<K, V>[] insertAll(K[] keys, V[] values) {
+    if(keys.length != values.length) {
+      throw new IllegalArgumentException("keys and values differ in length");
+    }
+    Entry<K, V>[] out = new Entry[keys.length];
+    for(int i = 0; i < keys.length; i++) {
+      out[i] = insert(keys[i], values[i]);
+    }
+    return out;
+  }
+
+  /**
+   *  Search for an entry with each key in keys, as if by calling find() for
+   *  each key in turn.
+   *
+   *  @param keys the search keys.
+   *  @return for each key, in the same order, an entry containing the key and
+   *          an associated value, or null if no entry contains the key.
+   **/
+
+  @SuppressWarnings("unchecked")
+  public default Entry<K, V>[] findAll(K[] keys) {
+    Entry<K, V>[] out = new Entry[keys.length];
+    for(int i = 0; i < keys.length; i++) {
+      out[i] = find(keys[i]);
+    }
+    return out;
+  }
+
+  /**
+   *  Remove an entry with each key in keys, as if by calling remove() for each
+   *  key in turn.
+   *
+   *  @param keys the search keys.
+   *  @return for each key, in the same order, the entry removed, or null if no
+   *          entry contained the key.
+   **/
+
+  @SuppressWarnings("unchecked")
+  public default Entry<K, V>[] removeAll(K[] keys) {
+    Entry<K, V>[] out = new Entry[keys.length];
+    for(int i = 0; i < keys.length; i++) {
+      out[i] = remove(keys[i]);
+    }
+    return out;
+  }
+
 }
@@ -0,0 +1,38 @@
+package dict;
+
+/**
+ * Fibonacci (multiply-shift) hashing over a power-of-two number of buckets. The multiplier is
+ * 2^32 divided by the golden ratio, made odd; its top bits depend on every bit of the hash
+ * code, so keeping the top bits of the product spreads sequential codes evenly.
+ */
+class FibonacciHash implements HashStrategy {
+
+	static final int GOLDEN = 0x9e3779b9;
+	static final int MAX_BUCKETS = 1 << 30; //Largest power of two that is a positive int
+
+	public HashStrategy.Function create(int minBuckets) {
+		final int size = powerOfTwoAtLeast(minBuckets);
+		final int shift = 32 - Integer.numberOfTrailingZeros(size);
+		return new HashStrategy.Function() {
+			public int buckets() {
+				return size;
+			}
+
+			public int index(Object key) {
+				return (key.hashCode() * GOLDEN) >>> shift;
+			}
+		};
+	}
+
+	/**
+	 * Returns the smallest power of two, at least 2, that is at least minBuckets, or
+	 * MAX_BUCKETS if minBuckets is larger.
+	 */
+	static int powerOfTwoAtLeast(int minBuckets) {
+		int buckets = 2;
+		while(buckets < minBuckets && buckets < MAX_BUCKETS) {
+			buckets <<= 1;
+		}
+		return buckets;
+	}
+}
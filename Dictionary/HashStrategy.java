@@ -0,0 +1,51 @@
+package dict;
+
+/**
+ * Maps keys to buckets for HashTable. A strategy chooses the number of buckets and creates a
+ * Function with freshly drawn random parameters each time a table is allocated or resized.
+ */
+public interface HashStrategy {
+
+	/**
+	 * Universal hashing: ((a * hashCode + b) mod p) mod N, with p the Mersenne prime 2^61 - 1,
+	 * which exceeds every hash code, and N prime. The default strategy.
+	 */
+	HashStrategy UNIVERSAL = new UniversalHash();
+
+	/**
+	 * Fibonacci hashing: multiplies the hash code by 2^32 divided by the golden ratio and keeps
+	 * the top bits, over a power-of-two number of buckets. The fastest strategy; no division.
+	 */
+	HashStrategy FIBONACCI = new FibonacciHash();
+
+	/**
+	 * SipHash-2-4 with a random 128-bit key per table, over a power-of-two number of buckets.
+	 * String keys are hashed from their characters, so an attacker who does not know the key
+	 * cannot choose Strings that collide. Other keys are hashed from their hash codes, which
+	 * protects against keys crafted to collide in the bucket index but not against keys with
+	 * equal hash codes.
+	 */
+	HashStrategy SIPHASH = new SipHash();
+
+	/**
+	 * Returns a new function over at least minBuckets buckets, or over the most buckets the
+	 * strategy supports if that is fewer: 2^30 for the power-of-two strategies.
+	 */
+	Function create(int minBuckets);
+
+	/**
+	 * A hash function bound to a number of buckets.
+	 */
+	interface Function {
+
+		/**
+		 * Returns the number of buckets.
+		 */
+		int buckets();
+
+		/**
+		 * Returns the bucket of key, in the range 0...buckets() - 1.
+		 */
+		int index(Object key);
+	}
+}
@@ -1,19 +1,46 @@
 package dict;
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
 import list.*;
 
-public class HashTable<K, V> {
+public class HashTable<K, V> implements Dictionary<K, V> {
 
 	LinkedList<Entry<K, V>>[] table;
 	private int n; //Size
 	private int N; //Number of buckets
 	
-	//Used in compression function
-	private int a; //Random integer on [1,N-1]
-	private int b; //Random integer on [0,N-1]
-	private int p; //Prime greater than N
+	private final HashStrategy strategy;
+	private HashStrategy.Function hash; //Maps keys to buckets of table
 	
 	private int numCollisions;
 
+	//Statistics; lookup counters and resize timings are only collected while stats is set.
+	private boolean stats;
+	private HashTableStats.Listener listener;
+	private int probes; //Entries compared by the current lookup
+	private long hits, misses, hitProbes, missProbes;
+	private int resizes;
+	private long resizeNanos;
+	private long resizeStarted; //Value of resizeNanos when the current resize began
+
+	//Incremental rehashing: while oldTable is non-null, entries are migrated from it into
+	//table a few buckets at a time by each insert, find and remove.
+	private LinkedList<Entry<K, V>>[] oldTable;
+	private HashStrategy.Function oldHash; //Maps keys to buckets of oldTable
+	private int rehashIndex; //Next bucket of oldTable to migrate
+	private int rehashBudget; //Maximum number of non-empty buckets migrated per operation
+
+	//Most entries readSnapshot() sizes a table for before reading them, so that a corrupt
+	//count in a header cannot make it allocate a huge bucket array up front.
+	private static final int SNAPSHOT_PRESIZE = 1 << 20;
+
+	//Most buckets asked of the strategy. Once a table has this many, or more because the
+	//strategy rounded up, it stops growing and its chains lengthen instead.
+	private static final int MAX_BUCKETS = 1 << 30;
+
   /** 
    *  Construct a new empty hash table intended to hold roughly sizeEstimate
    *  entries.  (The precise number of buckets is up to you, but we recommend
@@ -21,34 +48,41 @@ public class HashTable<K, V> {
    **/
 
   public HashTable(int sizeEstimate) {
-    N = (int)(((double)sizeEstimate)/0.7);
-    while(!isPrime(N)){
-    	N++;
+    this(sizeEstimate, 1);
+  }
+
+  /**
+   *  Construct a new empty hash table intended to hold roughly sizeEstimate
+   *  entries, which migrates at most rehashBudget non-empty buckets per operation
+   *  while it is resizing.  A budget of Integer.MAX_VALUE rehashes the whole table
+   *  inside the insert that triggers the resize.
+   *  @param sizeEstimate	expected number of entries.
+   *  @param rehashBudget	buckets to migrate per operation; must be positive.
+   **/
+  public HashTable(int sizeEstimate, int rehashBudget) {
+    this(sizeEstimate, rehashBudget, HashStrategy.UNIVERSAL);
+  }
+
+  /**
+   *  Construct a new empty hash table intended to hold roughly sizeEstimate
+   *  entries, which maps keys to buckets with the given strategy.
+   *  @param sizeEstimate	expected number of entries.
+   *  @param rehashBudget	buckets to migrate per operation; must be positive.
+   *  @param strategy		hashing strategy, such as HashStrategy.FIBONACCI.
+   **/
+  public HashTable(int sizeEstimate, int rehashBudget, HashStrategy strategy) {
+    if(rehashBudget < 1) {
+    	throw new IllegalArgumentException("rehashBudget must be positive");
     }
+    this.rehashBudget = rehashBudget;
+    this.strategy = strategy;
+    hash = strategy.create((int)Math.min(((double)sizeEstimate)/0.7, MAX_BUCKETS));
+    N = hash.buckets();
     n = 0;
     table = new LinkedList[N];
-    
-    
-    p = 10651;
-    a = (int)(Math.random()*(double)(p-1)) + 1;
-    b = (int)(Math.random()*(double)p);
     numCollisions = 0;
   }
 
-  /**
-   * Returns true iff n is prime.
-   * @param n	integer to be checked.
-   * @return	true if n is prime; false otherwise.
-   */
-  private boolean isPrime(int n) {
-	  for(int i = 2; i < Math.sqrt(n); i++){
-		  if(n % i == 0){
-			  return false;
-		  }
-	  }
-	  return true;
-  }
-  
 
   /** 
    *  Construct a new empty hash table with a default size.  Say, a prime in
@@ -59,15 +93,10 @@ public class HashTable<K, V> {
   }
 
   /**
-   *  Converts a hash code in the range Integer.MIN_VALUE...Integer.MAX_VALUE
-   *  to a value in the range 0...(size of hash table) - 1.
+   *  Converts a key to a value in the range 0...(size of hash table) - 1.
    **/
-  int compFunction(int code) {
-    int out = ((Math.abs(a*code) + b) % p) % N;
-    if(out < 0){
-    	out += N;
-    }
-    return out;
+  int compFunction(Object key) {
+    return hash.index(key);
   }
 
   /** 
@@ -100,19 +129,27 @@ public class HashTable<K, V> {
    *  @return an entry containing the key and value.
    **/
   public Entry<K, V> insert(K key, V value) {
-	if(((double)n/(double)N) > 0.7) {
-		resize();
+	rehashStep();
+	if(((double)n/(double)N) > 0.7 && N < MAX_BUCKETS) {
+		resize(grow(n));
 	}
-    int bucket = compFunction(key.hashCode());
     Entry<K, V> newEntry = new Entry<K, V>(key, value);
+    addEntry(newEntry);
+    n++;
+    return newEntry;
+  }
+
+  /**
+   * Adds an existing Entry to the bucket of the current table that its key hashes to.
+   */
+  private void addEntry(Entry<K, V> ent) {
+    int bucket = compFunction(ent.key);
     if(table[bucket] == null){
     	table[bucket] = new LinkedList<Entry<K,V>>();
     } else {
     	numCollisions++;
     }
-    table[bucket].add(newEntry);
-    n++;
-    return newEntry;
+    table[bucket].add(ent);
   }
   
   /** 
@@ -125,13 +162,29 @@ public class HashTable<K, V> {
    *          no entry contains the specified key.
    **/
   public Entry<K, V> find(K key) {
-	  int bucket = compFunction(key.hashCode());
-	  if(table[bucket] == null) {
+	  rehashStep();
+	  probes = 0;
+	  Entry<K, V> ent = findIn(table[compFunction(key)], key);
+	  if(ent == null && oldTable != null) {
+		  ent = findIn(oldTable[oldHash.index(key)], key);
+	  }
+	  if(stats) {
+		  recordLookup(ent != null);
+	  }
+	  return ent;
+  }
+
+  /**
+   * Returns an Entry in the bucket with a key equal to key, or null if there is none.
+   */
+  private Entry<K, V> findIn(LinkedList<Entry<K, V>> bucket, Object key) {
+	  if(bucket == null) {
 		  return null;
 	  }
-	  Iterator<Entry<K,V>> entries = table[bucket].iterator();
+	  Iterator<Entry<K,V>> entries = bucket.iterator();
 	  while(entries.hasNext()) {
 		  Entry<K,V> ent = entries.next();
+		  probes++;
 		  if(ent.key.equals(key)) {
 			  return ent;
 		  }
@@ -150,53 +203,363 @@ public class HashTable<K, V> {
    *          no entry contains the specified key.
    */
   public Entry<K,V> remove(Object key) {
-	  int bucket = compFunction(key.hashCode());
-	  if(table[bucket] == null || table[bucket].size() == 0){
+	  rehashStep();
+	  probes = 0;
+	  Entry<K, V> ent = removeFrom(table[compFunction(key)], key);
+	  if(ent == null && oldTable != null) {
+		  ent = removeFrom(oldTable[oldHash.index(key)], key);
+	  }
+	  if(stats) {
+		  recordLookup(ent != null);
+	  }
+	  if(ent != null) {
+		  n--;
+	  }
+	  return ent;
+  }
+
+  /**
+   * Removes and returns an Entry in the bucket with a key equal to key, or returns null if
+   * there is none.
+   */
+  private Entry<K, V> removeFrom(LinkedList<Entry<K, V>> bucket, Object key) {
+	  if(bucket == null || bucket.size() == 0){
 		  return null;
 	  }
-	  Iterator<Entry<K,V>> entries = table[bucket].iterator();
+	  Iterator<Entry<K,V>> entries = bucket.iterator();
 	  while(entries.hasNext()) {
 		  Entry<K,V> ent = entries.next();
+		  probes++;
 		  if(ent.key.equals(key)) {
 			  entries.remove();
-			  n--;
 			  return ent;
 		  }
 	  }
 	  return null;
   }
 
+  /**
+   *  Insert an entry for each key in keys, with the value at the same index of
+   *  values.  The table grows at most once, to fit the whole batch, and every key
+   *  is hashed before any entry is added.
+   *
+   *  @param keys the keys by which the entries can be retrieved.
+   *  @param values an arbitrary object for each key.
+   *  @return the new entries, in the same order as keys.
+   **/
+  @SuppressWarnings("unchecked")
+  public Entry<K, V>[] insertAll(K[] keys, V[] values) {
+	  if(keys.length != values.length) {
+		  throw new IllegalArgumentException("keys and values differ in length");
+	  }
+	  migrate(keys.length);
+	  if(n + keys.length > 0.7 * N && N < MAX_BUCKETS) {
+		  resize(grow((long)n + keys.length));
+		  migrate(Integer.MAX_VALUE);
+	  }
+	  Entry<K, V>[] out = new Entry[keys.length];
+	  for(long packed : byBucket(keys)) {
+		  int i = (int)packed;
+		  int bucket = (int)(packed >>> 32);
+		  out[i] = new Entry<K, V>(keys[i], values[i]);
+		  if(table[bucket] == null) {
+			  table[bucket] = new LinkedList<Entry<K,V>>();
+		  } else {
+			  numCollisions++;
+		  }
+		  table[bucket].add(out[i]);
+	  }
+	  n += keys.length;
+	  return out;
+  }
+
+  /**
+   *  Search for an entry with each key in keys.  Every key is hashed before
+   *  any chain is searched, and large batches visit the buckets in order.
+   *
+   *  @param keys the search keys.
+   *  @return for each key, in the same order, an entry containing the key and
+   *          an associated value, or null if no entry contains the key.
+   **/
+  @SuppressWarnings("unchecked")
+  public Entry<K, V>[] findAll(K[] keys) {
+	  migrate(keys.length);
+	  Entry<K, V>[] out = new Entry[keys.length];
+	  long[] order = byBucket(keys);
+	  for(int j = 0; j < order.length; j++) {
+		  int i = (int)order[j];
+		  probes = 0;
+		  Entry<K, V> ent = findIn(table[(int)(order[j] >>> 32)], keys[i]);
+		  if(ent == null && oldTable != null) {
+			  ent = findIn(oldTable[oldHash.index(keys[i])], keys[i]);
+		  }
+		  if(stats) {
+			  recordLookup(ent != null);
+		  }
+		  out[i] = ent;
+	  }
+	  return out;
+  }
+
+  /**
+   *  Remove an entry with each key in keys.  Every key is hashed before any
+   *  chain is searched, and large batches visit the buckets in order.
+   *
+   *  @param keys the search keys.
+   *  @return for each key, in the same order, the entry removed, or null if no
+   *          entry contained the key.
+   **/
+  @SuppressWarnings("unchecked")
+  public Entry<K, V>[] removeAll(K[] keys) {
+	  migrate(keys.length);
+	  Entry<K, V>[] out = new Entry[keys.length];
+	  long[] order = byBucket(keys);
+	  for(int j = 0; j < order.length; j++) {
+		  int i = (int)order[j];
+		  probes = 0;
+		  Entry<K, V> ent = removeFrom(table[(int)(order[j] >>> 32)], keys[i]);
+		  if(ent == null && oldTable != null) {
+			  ent = removeFrom(oldTable[oldHash.index(keys[i])], keys[i]);
+		  }
+		  if(stats) {
+			  recordLookup(ent != null);
+		  }
+		  if(ent != null) {
+			  n--;
+		  }
+		  out[i] = ent;
+	  }
+	  return out;
+  }
+
+  /**
+   *  Returns, for each key, its bucket in the upper 32 bits and its index in
+   *  keys in the lower 32 bits.  When the batch covers a good fraction of the
+   *  buckets, the result is sorted by bucket and then by index; otherwise keys
+   *  keep their order, since sorting would cost more than the locality it buys.
+   **/
+  private long[] byBucket(Object[] keys) {
+	  long[] order = new long[keys.length];
+	  for(int i = 0; i < keys.length; i++) {
+		  order[i] = (long)compFunction(keys[i]) << 32 | i;
+	  }
+	  if((long)keys.length * 8 >= N) { //Dense enough that bucket order walks table sequentially
+		  Arrays.sort(order);
+	  }
+	  return order;
+  }
+
+  /**
+   *  Runs up to steps steps of an unfinished resize, as many single operations
+   *  would.
+   **/
+  private void migrate(int steps) {
+	  for(int i = 0; i < steps && oldTable != null; i++) {
+		  rehashStep();
+	  }
+  }
+
   /**
    * Remove all entries from the dictionary.
    */
   public void makeEmpty() {
 	  table = new LinkedList[N];
+	  oldTable = null;
 	  n = 0;
   }
   
   /**
-   * Resize this HashTable
+   *  Streams every entry of this table to channel as a snapshot (see SnapshotWriter).
+   *  The channel is not closed.
+   *  @param channel destination of the snapshot.
+   *  @param keyCodec serializer for keys.
+   *  @param valueCodec serializer for values.
+   **/
+  public void writeSnapshot(WritableByteChannel channel, Codec<K> keyCodec,
+		  Codec<V> valueCodec) throws IOException {
+	  SnapshotWriter out = new SnapshotWriter(channel, n);
+	  writeBuckets(out, table, keyCodec, valueCodec);
+	  if(oldTable != null) {
+		  writeBuckets(out, oldTable, keyCodec, valueCodec);
+	  }
+	  out.finish();
+  }
+
+  private static <K, V> void writeBuckets(SnapshotWriter out, LinkedList<Entry<K, V>>[] buckets,
+		  Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+	  for(LinkedList<Entry<K, V>> bucket : buckets) {
+		  if(bucket == null) {
+			  continue;
+		  }
+		  Iterator<Entry<K, V>> entries = bucket.iterator();
+		  while(entries.hasNext()) {
+			  Entry<K, V> ent = entries.next();
+			  out.write(ent.key, keyCodec, ent.value, valueCodec);
+		  }
+	  }
+  }
+
+  /**
+   *  Builds a table from a snapshot read from channel.  The table is sized for the
+   *  number of entries in the snapshot, up to SNAPSHOT_PRESIZE, before any are
+   *  read, so loading a snapshot of up to that many entries never resizes; larger
+   *  snapshots grow the table as insert() would.  The channel is not closed.
+   *  @param channel source of the snapshot.
+   *  @param keyCodec deserializer for keys.
+   *  @param valueCodec deserializer for values.
+   *  @return a table holding every entry of the snapshot.
+   *  @throws IOException if the snapshot is malformed, or claims more entries
+   *  than a table can hold or than the channel has room for.
+   **/
+  public static <K, V> HashTable<K, V> readSnapshot(ReadableByteChannel channel,
+		  Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+	  SnapshotReader<K, V> in = new SnapshotReader<K, V>(channel, keyCodec, valueCodec);
+	  if(in.count() > Integer.MAX_VALUE) {
+		  throw new IOException("snapshot too large: " + in.count() + " entries");
+	  }
+	  HashTable<K, V> out = new HashTable<K, V>((int)Math.max(Math.min(in.count(),
+			  SNAPSHOT_PRESIZE), 1));
+	  while(in.next()) {
+		  out.insert(in.key(), in.value());
+	  }
+	  return out;
+  }
+  
+  /**
+   *  Returns the number of buckets to grow to for a table of the given number
+   *  of entries: at least twice the current number, and enough for a load
+   *  factor of 0.7, but no more than MAX_BUCKETS.  Computed in longs, so that
+   *  neither doubling a large table nor a large batch overflows.
+   **/
+  private int grow(long entries) {
+	  long buckets = Math.max(2L * N, (long)(entries / 0.7) + 1);
+	  return (int)Math.min(buckets, MAX_BUCKETS);
+  }
+
+  /**
+   * Resize this HashTable.  A table with at least minBuckets buckets is allocated
+   * and the current table is kept alongside it as oldTable; its entries are moved
+   * over by rehashStep() as later operations run.
+   */
+  private void resize(int minBuckets) {
+	  if(oldTable != null) { //Previous resize has not finished; complete it first
+		  while(oldTable != null) {
+			  rehashStep();
+		  }
+	  }
+	  long start = stats ? System.nanoTime() : 0;
+	  resizes++;
+	  resizeStarted = resizeNanos;
+	  oldTable = table;
+	  oldHash = hash;
+	  rehashIndex = 0;
+
+	  hash = strategy.create(minBuckets);
+	  N = hash.buckets();
+	  table = new LinkedList[N];
+	  if(stats) {
+		  resizeNanos += System.nanoTime() - start;
+	  }
+	  rehashStep();
+  }
+
+  /**
+   * Migrates up to rehashBudget non-empty buckets from oldTable into table,
+   * visiting at most ten empty buckets per unit of budget.  Drops oldTable once
+   * every bucket has been moved.
    */
-  private void resize() {
-		N *= 2;
-		while(!isPrime(N)) {
-			N++;
-		}
-	    p *= 2;
-	    while(!isPrime(p)) {
-	      p++;
-	    }
-	    a = (int)(Math.random()*(double)(p-1)) + 1;
-	    b = (int)(Math.random()*(double)p);
-
-		  LinkedList<Entry<K,V>>[] temp = table;
-		  table = new LinkedList[N];
-		  for(int i = 0; i<temp.length; i++) {
-			  Iterator<Entry<K,V>> listIt = temp[i].iterator();
-			  while(listIt.hasNext()){
-				  Entry<K,V> curr = listIt.next();
-				  insert(curr.key, curr.value);
+  private void rehashStep() {
+	  if(oldTable == null) {
+		  return;
+	  }
+	  long start = stats ? System.nanoTime() : 0;
+	  int moved = 0;
+	  long emptyVisits = (long)rehashBudget * 10;
+	  while(rehashIndex < oldTable.length && moved < rehashBudget) {
+		  LinkedList<Entry<K,V>> bucket = oldTable[rehashIndex];
+		  oldTable[rehashIndex] = null;
+		  rehashIndex++;
+		  if(bucket == null || bucket.size() == 0) {
+			  if(--emptyVisits <= 0) {
+				  break;
 			  }
+			  continue;
+		  }
+		  Iterator<Entry<K,V>> listIt = bucket.iterator();
+		  while(listIt.hasNext()){
+			  addEntry(listIt.next());
+		  }
+		  moved++;
+	  }
+	  if(stats) {
+		  resizeNanos += System.nanoTime() - start;
+	  }
+	  if(rehashIndex >= oldTable.length) {
+		  if(listener != null) {
+			  listener.resized(oldTable.length, N, resizeNanos - resizeStarted);
 		  }
+		  oldTable = null;
+		  oldHash = null;
 	  }
+  }
+
+  /**
+   *  Turns collection of lookup counters and resize timings on or off.  Chain
+   *  lengths are always available from stats(); with collection off, lookups pay
+   *  only for a counter increment per entry compared.
+   *  @param enabled true to collect statistics.
+   **/
+  public void setStatsEnabled(boolean enabled) {
+	  stats = enabled;
+  }
+
+  /**
+   *  Sets a listener to be told of each completed resize, or removes it if
+   *  listener is null.
+   **/
+  public void setStatsListener(HashTableStats.Listener listener) {
+	  this.listener = listener;
+  }
+
+  /**
+   *  Returns a snapshot of this table's chain lengths and of the counters
+   *  collected while stats were enabled.  Takes time proportional to the number
+   *  of buckets.
+   **/
+  public HashTableStats stats() {
+	  int[] lengths = new int[N + (oldTable == null ? 0 : oldTable.length)];
+	  for(int i = 0; i < N; i++) {
+		  lengths[i] = table[i] == null ? 0 : table[i].size();
+	  }
+	  for(int i = N; i < lengths.length; i++) {
+		  LinkedList<Entry<K, V>> bucket = oldTable[i - N];
+		  lengths[i] = bucket == null ? 0 : bucket.size();
+	  }
+	  return new HashTableStats(n, lengths, numCollisions, hits, misses, hitProbes,
+			  missProbes, resizes, resizeNanos);
+  }
+
+  /**
+   *  Resets the lookup counters and resize timings to zero.  The collision
+   *  count is kept: it is maintained whether or not stats are enabled and
+   *  describes how the entries were placed, not recent lookups.
+   **/
+  public void resetStats() {
+	  hits = misses = hitProbes = missProbes = 0;
+	  resizes = 0;
+	  resizeNanos = resizeStarted = 0;
+  }
+
+  /**
+   *  Adds the probes of the lookup just finished to the hit or miss counters.
+   **/
+  private void recordLookup(boolean hit) {
+	  if(hit) {
+		  hits++;
+		  hitProbes += probes;
+	  } else {
+		  misses++;
+		  missProbes += probes;
+	  }
+  }
 }
@@ -0,0 +1,168 @@
+package dict;
+
+/**
+ * Snapshot of the shape and lookup behavior of a HashTable, returned by HashTable.stats().
+ * Chain lengths are computed when the snapshot is taken; lookup and resize counters are only
+ * collected while stats are enabled on the table.
+ */
+public class HashTableStats {
+
+	/**
+	 * Receives an event each time a HashTable finishes a resize, for forwarding to a metrics
+	 * registry or event log.
+	 */
+	public interface Listener {
+		/**
+		 * Called when every entry has been migrated to the new buckets.
+		 * @param fromBuckets	number of buckets before the resize
+		 * @param toBuckets		number of buckets after the resize
+		 * @param nanos			time spent resizing and migrating entries; 0 if stats were
+		 * 						disabled
+		 */
+		void resized(int fromBuckets, int toBuckets, long nanos);
+	}
+
+	private final int size;
+	private final int[] chainLengths;
+	private final int[] histogram;
+	private final long collisions;
+	private final long hits, misses, hitProbes, missProbes;
+	private final long resizes, resizeNanos;
+
+	HashTableStats(int size, int[] chainLengths, long collisions, long hits, long misses,
+			long hitProbes, long missProbes, long resizes, long resizeNanos) {
+		this.size = size;
+		this.chainLengths = chainLengths;
+		this.collisions = collisions;
+		this.hits = hits;
+		this.misses = misses;
+		this.hitProbes = hitProbes;
+		this.missProbes = missProbes;
+		this.resizes = resizes;
+		this.resizeNanos = resizeNanos;
+		int max = 0;
+		for(int length : chainLengths) {
+			max = Math.max(max, length);
+		}
+		histogram = new int[max + 1];
+		for(int length : chainLengths) {
+			histogram[length]++;
+		}
+	}
+
+	/**
+	 * Returns the number of entries in the table.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of buckets, including those of a table still being migrated from.
+	 */
+	public int buckets() {
+		return chainLengths.length;
+	}
+
+	/**
+	 * Returns the number of entries per bucket.
+	 */
+	public double loadFactor() {
+		return (double)size / chainLengths.length;
+	}
+
+	/**
+	 * Returns the number of entries added to a bucket that was already non-empty.
+	 */
+	public long collisions() {
+		return collisions;
+	}
+
+	/**
+	 * Returns the length of the longest chain.
+	 */
+	public int maxChainLength() {
+		return histogram.length - 1;
+	}
+
+	/**
+	 * Returns the smallest chain length that at least the given fraction of buckets do not
+	 * exceed; for example, chainLengthPercentile(0.99) is the 99th percentile.
+	 * @param fraction	value between 0 and 1
+	 */
+	public int chainLengthPercentile(double fraction) {
+		long needed = (long)Math.ceil(fraction * chainLengths.length);
+		long seen = 0;
+		for(int length = 0; length < histogram.length; length++) {
+			seen += histogram[length];
+			if(seen >= needed) {
+				return length;
+			}
+		}
+		return maxChainLength();
+	}
+
+	/**
+	 * Returns the chain length of every bucket.
+	 */
+	public int[] chainLengths() {
+		return chainLengths.clone();
+	}
+
+	/**
+	 * Returns the number of buckets with each chain length: element i counts the buckets
+	 * holding i entries.
+	 */
+	public int[] histogram() {
+		return histogram.clone();
+	}
+
+	/**
+	 * Returns the number of finds and removes that found their key.
+	 */
+	public long hits() {
+		return hits;
+	}
+
+	/**
+	 * Returns the number of finds and removes that did not find their key.
+	 */
+	public long misses() {
+		return misses;
+	}
+
+	/**
+	 * Returns the average number of entries compared per successful lookup.
+	 */
+	public double probesPerHit() {
+		return hits == 0 ? 0 : (double)hitProbes / hits;
+	}
+
+	/**
+	 * Returns the average number of entries compared per unsuccessful lookup.
+	 */
+	public double probesPerMiss() {
+		return misses == 0 ? 0 : (double)missProbes / misses;
+	}
+
+	/**
+	 * Returns the number of resizes started.
+	 */
+	public long resizes() {
+		return resizes;
+	}
+
+	/**
+	 * Returns the total time spent resizing and migrating entries, in nanoseconds.
+	 */
+	public long resizeNanos() {
+		return resizeNanos;
+	}
+
+	public String toString() {
+		return String.format("size %d, buckets %d, load %.2f, chain max %d / p99 %d, "
+				+ "probes %.2f per hit / %.2f per miss, %d resizes in %.1f ms", size,
+				buckets(), loadFactor(), maxChainLength(), chainLengthPercentile(0.99),
+				probesPerHit(), probesPerMiss(), resizes, resizeNanos / 1e6);
+	}
+}
@@ -0,0 +1,234 @@
+package dict;
+
+/**
+ * Hash table from primitive long keys to primitive long values. Keys and values are kept in flat
+ * parallel arrays and probed linearly, so get, put and remove neither box keys or values
+ * nor allocate. Buckets are chosen with the same compression family as HashTable,
+ * ((a*key + b) mod p) mod N, applied to the key folded to 32 bits, with p a prime larger
+ * than the prime number of slots N. Unlike HashTable, each key maps to at most one value.
+ */
+public class LongLongHashTable {
+
+	private static final double MAX_LOAD = 0.7;
+
+	private long[] keys; //Key 0 marks an empty slot; the entry for key 0 is kept separately
+	private long[] values;
+	private int n; //Size, including the entry for key 0
+	private int N; //Number of slots
+
+	//Used in compression function
+	private long a; //Random integer on [1,p-1]
+	private long b; //Random integer on [0,p-1]
+	private long p; //Prime greater than N
+
+	private boolean hasZeroKey;
+	private long zeroValue;
+	private final long missingValue; //Returned by get and remove for absent keys
+
+	/**
+	 * Construct a new empty hash table intended to hold roughly sizeEstimate entries without
+	 * resizing.
+	 * @param sizeEstimate	expected number of entries
+	 * @param missingValue	value returned by get and remove for keys that are not present
+	 */
+	public LongLongHashTable(int sizeEstimate, long missingValue) {
+		this.missingValue = missingValue;
+		allocate(Primes.atLeast((int)(((double)sizeEstimate)/MAX_LOAD) + 2));
+	}
+
+	/**
+	 * Construct a new empty hash table with a default size that reports absent keys as 0.
+	 */
+	public LongLongHashTable() {
+		this(70, 0);
+	}
+
+	/**
+	 * Replaces the backing arrays with empty arrays of length slots and draws a new
+	 * compression function.
+	 */
+	private void allocate(int slots) {
+		N = slots;
+		keys = new long[N];
+		values = new long[N];
+		p = Primes.atLeast(2 * N + 1);
+		a = (long)(Math.random()*(double)(p-1)) + 1;
+		b = (long)(Math.random()*(double)p);
+	}
+
+	/**
+	 * Converts a key to a slot in the range 0...N - 1.
+	 */
+	private int compFunction(long key) {
+		long out = (a * (int)(key ^ (key >>> 32)) + b) % p;
+		if(out < 0) {
+			out += p;
+		}
+		return (int)(out % N);
+	}
+
+	/**
+	 * Returns the number of entries in the table.
+	 */
+	public int size() {
+		return n;
+	}
+
+	/**
+	 * Tests if the table is empty.
+	 */
+	public boolean isEmpty() {
+		return n == 0;
+	}
+
+	/**
+	 * Returns the slot holding key, or -1 if key is not in the table. Key must not be 0.
+	 */
+	private int slotOf(long key) {
+		int slot = compFunction(key);
+		while(keys[slot] != 0) {
+			if(keys[slot] == key) {
+				return slot;
+			}
+			slot = slot + 1 == N ? 0 : slot + 1;
+		}
+		return -1;
+	}
+
+	/**
+	 * Tests if the table has an entry for key.
+	 */
+	public boolean containsKey(long key) {
+		return key == 0 ? hasZeroKey : slotOf(key) >= 0;
+	}
+
+	/**
+	 * Returns the value associated with key, or the missing value if there is none.
+	 * @param key	the search key
+	 */
+	public long get(long key) {
+		if(key == 0) {
+			return hasZeroKey ? zeroValue : missingValue;
+		}
+		int slot = slotOf(key);
+		return slot < 0 ? missingValue : values[slot];
+	}
+
+	/**
+	 * Associates value with key, replacing any value key already had.
+	 * @param key	the key by which the value can be retrieved
+	 * @param value	an arbitrary object
+	 * @return		the previous value associated with key, or the missing value if there was
+	 * 				none
+	 */
+	public long put(long key, long value) {
+		if(key == 0) {
+			long old = hasZeroKey ? zeroValue : missingValue;
+			if(!hasZeroKey) {
+				hasZeroKey = true;
+				n++;
+			}
+			zeroValue = value;
+			return old;
+		}
+		int slot = compFunction(key);
+		while(keys[slot] != 0) {
+			if(keys[slot] == key) {
+				long old = values[slot];
+				values[slot] = value;
+				return old;
+			}
+			slot = slot + 1 == N ? 0 : slot + 1;
+		}
+		keys[slot] = key;
+		values[slot] = value;
+		n++;
+		if(n > N * MAX_LOAD) {
+			resize();
+		}
+		return missingValue;
+	}
+
+	/**
+	 * Removes the entry for key.
+	 * @param key	the search key
+	 * @return		the value that was associated with key, or the missing value if there was
+	 * 				none
+	 */
+	public long remove(long key) {
+		if(key == 0) {
+			if(!hasZeroKey) {
+				return missingValue;
+			}
+			hasZeroKey = false;
+			n--;
+			return zeroValue;
+		}
+		int slot = slotOf(key);
+		if(slot < 0) {
+			return missingValue;
+		}
+		long old = values[slot];
+		closeGap(slot);
+		n--;
+		return old;
+	}
+
+	/**
+	 * Empties the specified slot and moves later entries of its probe run back so that every
+	 * remaining key is still reachable from its home slot.
+	 */
+	private void closeGap(int gap) {
+		int slot = gap;
+		while(true) {
+			slot = slot + 1 == N ? 0 : slot + 1;
+			if(keys[slot] == 0) {
+				break;
+			}
+			int home = compFunction(keys[slot]);
+			boolean stays = gap <= slot ? (gap < home && home <= slot)
+					: (gap < home || home <= slot);
+			if(!stays) {
+				keys[gap] = keys[slot];
+				values[gap] = values[slot];
+				gap = slot;
+			}
+		}
+		keys[gap] = 0;
+	}
+
+	/**
+	 * Remove all entries from the table.
+	 */
+	public void makeEmpty() {
+		allocate(N);
+		hasZeroKey = false;
+		n = 0;
+	}
+
+	/**
+	 * Returns the approximate number of bytes used per entry by the backing arrays.
+	 */
+	public double bytesPerEntry() {
+		return n == 0 ? 0 : (double)N * (8 + 8) / n;
+	}
+
+	/**
+	 * Moves every entry into a table with about twice as many slots.
+	 */
+	private void resize() {
+		long[] oldKeys = keys;
+		long[] oldValues = values;
+		allocate(Primes.atLeast(2 * N + 1));
+		for(int i = 0; i < oldKeys.length; i++) {
+			if(oldKeys[i] != 0) {
+				int slot = compFunction(oldKeys[i]);
+				while(keys[slot] != 0) {
+					slot = slot + 1 == N ? 0 : slot + 1;
+				}
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+}
@@ -0,0 +1,337 @@
+package dict;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+
+/**
+ * Hash table whose buckets and entries live in a memory-mapped file rather than on the Java
+ * heap. Keys and values are serialized with a Codec; keys are hashed and compared in their
+ * serialized form, so lookups do not depend on hashCode() being stable across JVMs.
+ *
+ * The file holds a header, a fixed array of bucket heads and an append-only slab of records
+ * chained per bucket. Reopening an existing file re-maps it without reading the entries, so a
+ * warm start costs only the mapping. Removed records are unlinked but their space is not
+ * reclaimed. The number of buckets is fixed when the file is created, so sizeEstimate should
+ * be close to the expected number of entries. Not thread-safe.
+ * @param <K>	type of key objects to be used
+ * @param <V>	type of value objects to be used
+ */
+public class MappedHashTable<K, V> implements Dictionary<K, V>, Closeable {
+
+	private static final long MAGIC = 0x4d61707065644854L; //"MappedHT"
+	private static final int VERSION = 1;
+	private static final int HEADER = 64;
+	//Header fields
+	private static final int SIZE_AT = 16; //long: number of entries
+	private static final int END_AT = 24; //long: end of the record slab
+	//Record fields
+	private static final int NEXT = 0; //long: offset of the next record in the chain; 0 ends it
+	private static final int HASH = 8; //int
+	private static final int KEY_LENGTH = 12; //int
+	private static final int VALUE_LENGTH = 16; //int
+	private static final int RECORD_HEADER = 20;
+
+	private static final int CHUNK_BITS = 30; //Mapped in 1GB chunks; records never straddle two
+	private static final long CHUNK = 1L << CHUNK_BITS;
+	private static final long CHUNK_MASK = CHUNK - 1;
+
+	private final RandomAccessFile file;
+	private final FileChannel channel;
+	private final ArrayList<MappedByteBuffer> chunks = new ArrayList<MappedByteBuffer>();
+	private long mappedEnd; //Number of bytes of the file currently mapped
+	private final Codec<K> keyCodec;
+	private final Codec<V> valueCodec;
+	private final int N; //Number of buckets
+	private long n; //Size
+	private long dataEnd;
+
+	/**
+	 * Test code.
+	 */
+	public static void main(String[] args) throws IOException {
+		File f = File.createTempFile("mapped", ".dict");
+		f.delete();
+		MappedHashTable<String, Long> table =
+				new MappedHashTable<String, Long>(f, 100, Codec.STRING, Codec.LONG);
+		for(long i = 0; i < 100; i++) {
+			table.insert("key" + i, i * i);
+		}
+		table.remove("key7");
+		table.close();
+		table = new MappedHashTable<String, Long>(f, 100, Codec.STRING, Codec.LONG);
+		System.out.println(table.size() + " " + table.find("key9").value() + " "
+				+ table.find("key7"));
+		table.close();
+		f.delete();
+	}
+
+	/**
+	 * Opens the table stored in file, or creates a new empty table there if the file does not
+	 * exist or is empty.
+	 * @param f				file holding the table
+	 * @param sizeEstimate	expected number of entries; only used when creating the table
+	 * @param keyCodec		serializer for keys
+	 * @param valueCodec	serializer for values
+	 * @throws IOException	if the file cannot be opened or mapped, or holds something else
+	 */
+	public MappedHashTable(File f, int sizeEstimate, Codec<K> keyCodec, Codec<V> valueCodec)
+			throws IOException {
+		this.keyCodec = keyCodec;
+		this.valueCodec = valueCodec;
+		file = new RandomAccessFile(f, "rw");
+		channel = file.getChannel();
+		boolean existing = channel.size() >= HEADER;
+		map(Math.max(HEADER, channel.size()));
+		if(existing) {
+			if(getLong(0) != MAGIC || getInt(8) != VERSION) {
+				close();
+				throw new IOException(f + " is not a MappedHashTable file");
+			}
+			N = getInt(12);
+			n = getLong(SIZE_AT);
+			dataEnd = getLong(END_AT);
+		} else {
+			N = Primes.atLeast(Math.max(sizeEstimate, 1));
+			dataEnd = align(HEADER + 8L * N);
+			map(dataEnd);
+			putLong(0, MAGIC);
+			putInt(8, VERSION);
+			putInt(12, N);
+			writeHeader();
+		}
+	}
+
+	/**
+	 * Returns the number of entries stored in the dictionary, capped at Integer.MAX_VALUE.
+	 */
+	public int size() {
+		return (int)Math.min(n, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Tests if the dictionary is empty.
+	 */
+	public boolean isEmpty() {
+		return n == 0;
+	}
+
+	/**
+	 * Appends a new entry with the specified key and value to the file. Multiple entries with
+	 * the same key can coexist in the dictionary.
+	 * @param key	the key by which the entry can be retrieved
+	 * @param value	an arbitrary object
+	 * @return		an entry containing the key and value
+	 * @throws UncheckedIOException	if the file cannot be grown
+	 */
+	public Entry<K, V> insert(K key, V value) {
+		byte[] k = keyCodec.encode(key);
+		byte[] v = valueCodec.encode(value);
+		int hash = hash(k);
+		long length = align(RECORD_HEADER + k.length + v.length);
+		if(length > CHUNK) {
+			throw new IllegalArgumentException("entry does not fit in one mapped chunk");
+		}
+		long at = dataEnd;
+		if((at & CHUNK_MASK) + length > CHUNK) { //Start the record in the next chunk
+			at = (at | CHUNK_MASK) + 1;
+		}
+		try {
+			map(at + length);
+		} catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		long bucket = bucketAt(hash);
+		putLong(at + NEXT, getLong(bucket));
+		putInt(at + HASH, hash);
+		putInt(at + KEY_LENGTH, k.length);
+		putInt(at + VALUE_LENGTH, v.length);
+		putBytes(at + RECORD_HEADER, k);
+		putBytes(at + RECORD_HEADER + k.length, v);
+		putLong(bucket, at);
+		dataEnd = at + length;
+		n++;
+		writeHeader();
+		return new Entry<K, V>(key, value);
+	}
+
+	/**
+	 * Search for an entry with the specified key. If several entries have the specified key,
+	 * the most recently inserted one is returned.
+	 * @param key	the search key
+	 * @return		an entry containing the key and an associated value, or null if no entry
+	 * 				contains the specified key
+	 */
+	public Entry<K, V> find(K key) {
+		byte[] k = keyCodec.encode(key);
+		int hash = hash(k);
+		for(long at = getLong(bucketAt(hash)); at != 0; at = getLong(at + NEXT)) {
+			if(matches(at, hash, k)) {
+				return new Entry<K, V>(key, readValue(at, k.length));
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Remove an entry with the specified key. If several entries have the specified key, the
+	 * most recently inserted one is removed.
+	 * @param key	the search key
+	 * @return		an entry containing the key and an associated value, or null if no entry
+	 * 				contains the specified key
+	 */
+	public Entry<K, V> remove(K key) {
+		byte[] k = keyCodec.encode(key);
+		int hash = hash(k);
+		long prev = bucketAt(hash); //Location of the pointer to the current record
+		for(long at = getLong(prev); at != 0; at = getLong(at + NEXT)) {
+			if(matches(at, hash, k)) {
+				putLong(prev, getLong(at + NEXT));
+				n--;
+				writeHeader();
+				return new Entry<K, V>(key, readValue(at, k.length));
+			}
+			prev = at + NEXT;
+		}
+		return null;
+	}
+
+	/**
+	 * Remove all entries from the dictionary. The file keeps its current length.
+	 */
+	public void makeEmpty() {
+		for(int i = 0; i < N; i++) {
+			putLong(HEADER + 8L * i, 0);
+		}
+		n = 0;
+		dataEnd = align(HEADER + 8L * N);
+		writeHeader();
+	}
+
+	/**
+	 * Writes every modified page of the table to the file.
+	 */
+	public void force() {
+		for(MappedByteBuffer chunk : chunks) {
+			chunk.force();
+		}
+	}
+
+	/**
+	 * Flushes the table to its file and closes the file. The mapping itself is released when
+	 * it is garbage collected.
+	 */
+	public void close() throws IOException {
+		force();
+		file.close();
+	}
+
+	/**
+	 * Returns true iff the record at the specified offset has the specified hash and key.
+	 */
+	private boolean matches(long at, int hash, byte[] k) {
+		if(getInt(at + HASH) != hash || getInt(at + KEY_LENGTH) != k.length) {
+			return false;
+		}
+		ByteBuffer chunk = chunks.get((int)(at >>> CHUNK_BITS));
+		int pos = (int)(at & CHUNK_MASK) + RECORD_HEADER;
+		for(int i = 0; i < k.length; i++) {
+			if(chunk.get(pos + i) != k[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Decodes the value of the record at the specified offset.
+	 */
+	private V readValue(long at, int keyLength) {
+		byte[] v = new byte[getInt(at + VALUE_LENGTH)];
+		ByteBuffer chunk = chunks.get((int)(at >>> CHUNK_BITS)).duplicate();
+		chunk.position((int)(at & CHUNK_MASK) + RECORD_HEADER + keyLength);
+		chunk.get(v);
+		return valueCodec.decode(v);
+	}
+
+	/**
+	 * Returns the file offset of the bucket head for the specified hash.
+	 */
+	private long bucketAt(int hash) {
+		return HEADER + 8L * ((hash & 0x7fffffff) % N);
+	}
+
+	/**
+	 * FNV-1a hash of a serialized key, followed by a final mix of the high bits into the low.
+	 */
+	private static int hash(byte[] k) {
+		int h = 0x811c9dc5;
+		for(int i = 0; i < k.length; i++) {
+			h = (h ^ (k[i] & 0xff)) * 0x01000193;
+		}
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Rounds length up to a multiple of 8, so that records keep their longs aligned.
+	 */
+	private static long align(long length) {
+		return (length + 7) & ~7L;
+	}
+
+	/**
+	 * Stores the size and slab end in the header.
+	 */
+	private void writeHeader() {
+		putLong(SIZE_AT, n);
+		putLong(END_AT, dataEnd);
+	}
+
+	/**
+	 * Makes sure at least the first end bytes of the file are mapped, growing the file and the
+	 * mapping geometrically. A partially mapped last chunk is re-mapped at its larger size.
+	 */
+	private void map(long end) throws IOException {
+		if(end <= mappedEnd) {
+			return;
+		}
+		long target = Math.max(end, Math.max(mappedEnd * 2, 4096));
+		int first = (int)(mappedEnd >>> CHUNK_BITS);
+		while(chunks.size() > first) {
+			chunks.remove(chunks.size() - 1);
+		}
+		for(long start = (long)first << CHUNK_BITS; start < target; start += CHUNK) {
+			chunks.add(channel.map(FileChannel.MapMode.READ_WRITE, start,
+					Math.min(CHUNK, target - start)));
+		}
+		mappedEnd = target;
+	}
+
+	private long getLong(long at) {
+		return chunks.get((int)(at >>> CHUNK_BITS)).getLong((int)(at & CHUNK_MASK));
+	}
+
+	private void putLong(long at, long value) {
+		chunks.get((int)(at >>> CHUNK_BITS)).putLong((int)(at & CHUNK_MASK), value);
+	}
+
+	private int getInt(long at) {
+		return chunks.get((int)(at >>> CHUNK_BITS)).getInt((int)(at & CHUNK_MASK));
+	}
+
+	private void putInt(long at, int value) {
+		chunks.get((int)(at >>> CHUNK_BITS)).putInt((int)(at & CHUNK_MASK), value);
+	}
+
+	private void putBytes(long at, byte[] bytes) {
+		ByteBuffer chunk = chunks.get((int)(at >>> CHUNK_BITS)).duplicate();
+		chunk.position((int)(at & CHUNK_MASK));
+		chunk.put(bytes);
+	}
+}
@@ -0,0 +1,222 @@
+package dict;
+
+/**
+ * Open-addressing hash table using Robin Hood linear probing with backward-shift deletion.
+ * Entries and their cached hash codes are kept in flat parallel arrays, so an insert allocates
+ * only its Entry, and a probe walks contiguous hash codes instead of a chain of list nodes,
+ * following an Entry only when the hash codes match. insert, find and remove return the stored
+ * Entry itself. Duplicate keys are permitted, as required by the Dictionary contract.
+ * @param <K>	type of key objects to be used
+ * @param <V>	type of value objects to be used
+ */
+public class OpenAddressHashTable<K, V> implements Dictionary<K, V> {
+
+	private static final double MAX_LOAD = 0.7;
+
+	private Entry<K, V>[] entries;
+	private int[] hashes; //Mixed hash of each slot; 0 marks an empty slot
+	private int n; //Size
+	private int mask; //Number of slots - 1; the number of slots is a power of two
+	private int threshold; //Size at which the table is grown
+
+	/**
+	 * Construct a new empty hash table intended to hold roughly sizeEstimate entries without
+	 * growing.
+	 * @param sizeEstimate	expected number of entries
+	 */
+	public OpenAddressHashTable(int sizeEstimate) {
+		allocate(FibonacciHash.powerOfTwoAtLeast((int)(sizeEstimate / MAX_LOAD + 1)));
+	}
+
+	/**
+	 * Construct a new empty hash table with a default size.
+	 */
+	public OpenAddressHashTable() {
+		this(70);
+	}
+
+	/**
+	 * Replaces the backing arrays with empty arrays of the given length.
+	 * @param length	number of slots; must be a power of two
+	 */
+	@SuppressWarnings("unchecked")
+	private void allocate(int length) {
+		entries = new Entry[length];
+		hashes = new int[length];
+		mask = length - 1;
+		threshold = (int)(length * MAX_LOAD);
+		n = 0;
+	}
+
+	/**
+	 * Spreads the bits of a hash code so that the low bits used to pick a home slot depend on
+	 * the whole code. Never returns 0, which is reserved for empty slots.
+	 */
+	private static int mix(int code) {
+		int h = code * 0x9E3779B9;
+		h ^= h >>> 16;
+		return h == 0 ? 1 : h;
+	}
+
+	/**
+	 * Returns how far the entry in the specified slot is from its home slot.
+	 */
+	private int probeDistance(int slot) {
+		return (slot - (hashes[slot] & mask)) & mask;
+	}
+
+	/**
+	 * Returns the number of entries stored in the dictionary.
+	 */
+	public int size() {
+		return n;
+	}
+
+	/**
+	 * Tests if the dictionary is empty.
+	 */
+	public boolean isEmpty() {
+		return n == 0;
+	}
+
+	/**
+	 * Inserts a new entry with the specified key and value. Multiple entries with the same
+	 * key can coexist in the dictionary.
+	 * @param key	the key by which the entry can be retrieved
+	 * @param value	an arbitrary object
+	 * @return		an entry containing the key and value
+	 * @throws IllegalStateException	if the table already has FibonacciHash.MAX_BUCKETS - 1
+	 * 									entries and cannot grow
+	 */
+	public Entry<K, V> insert(K key, V value) {
+		if(n >= threshold) {
+			resize();
+		}
+		Entry<K, V> entry = new Entry<K, V>(key, value);
+		place(mix(key.hashCode()), entry);
+		n++;
+		return entry;
+	}
+
+	/**
+	 * Places an entry into the table, displacing entries that are closer to their home slot
+	 * than the entry being placed.
+	 */
+	private void place(int h, Entry<K, V> entry) {
+		int slot = h & mask;
+		int dist = 0;
+		while(hashes[slot] != 0) {
+			int existing = probeDistance(slot);
+			if(existing < dist) { //Take the slot from the richer entry and keep placing it
+				int th = hashes[slot];
+				Entry<K, V> te = entries[slot];
+				hashes[slot] = h;
+				entries[slot] = entry;
+				h = th;
+				entry = te;
+				dist = existing;
+			}
+			slot = (slot + 1) & mask;
+			dist++;
+		}
+		hashes[slot] = h;
+		entries[slot] = entry;
+	}
+
+	/**
+	 * Returns the slot holding an entry with the specified key, or -1 if there is none.
+	 */
+	private int slotOf(Object key) {
+		int h = mix(key.hashCode());
+		int slot = h & mask;
+		int dist = 0;
+		while(hashes[slot] != 0 && probeDistance(slot) >= dist) {
+			if(hashes[slot] == h && entries[slot].key.equals(key)) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+			dist++;
+		}
+		return -1;
+	}
+
+	/**
+	 * Search for an entry with the specified key. If several entries have the specified key,
+	 * one is chosen arbitrarily.
+	 * @param key	the search key
+	 * @return		an entry containing the key and an associated value, or null if no entry
+	 * 				contains the specified key
+	 */
+	public Entry<K, V> find(K key) {
+		int slot = slotOf(key);
+		return slot < 0 ? null : entries[slot];
+	}
+
+	/**
+	 * Returns the value of an entry with the specified key.
+	 * @param key	the search key
+	 * @return		a value associated with key; null if no entry contains key
+	 */
+	public V get(K key) {
+		int slot = slotOf(key);
+		return slot < 0 ? null : entries[slot].value;
+	}
+
+	/**
+	 * Remove an entry with the specified key. If several entries have the specified key, one
+	 * is chosen arbitrarily.
+	 * @param key	the search key
+	 * @return		an entry containing the key and an associated value, or null if no entry
+	 * 				contains the specified key
+	 */
+	public Entry<K, V> remove(K key) {
+		int slot = slotOf(key);
+		if(slot < 0) {
+			return null;
+		}
+		Entry<K, V> out = entries[slot];
+		int next = (slot + 1) & mask;
+		while(hashes[next] != 0 && probeDistance(next) > 0) { //Shift the cluster back by one
+			hashes[slot] = hashes[next];
+			entries[slot] = entries[next];
+			slot = next;
+			next = (next + 1) & mask;
+		}
+		hashes[slot] = 0;
+		entries[slot] = null;
+		n--;
+		return out;
+	}
+
+	/**
+	 * Remove all entries from the dictionary.
+	 */
+	public void makeEmpty() {
+		allocate(hashes.length);
+	}
+
+	/**
+	 * Doubles the number of slots and re-places every entry. A table already at
+	 * FibonacciHash.MAX_BUCKETS slots cannot double, so it is instead allowed to fill past
+	 * MAX_LOAD up to one empty slot, which every probe needs in order to end.
+	 */
+	private void resize() {
+		if(hashes.length == FibonacciHash.MAX_BUCKETS) {
+			if(n >= mask) {
+				throw new IllegalStateException("hash table is full at " + n + " entries");
+			}
+			threshold = mask;
+			return;
+		}
+		int[] oldHashes = hashes;
+		Entry<K, V>[] oldEntries = entries;
+		int oldSize = n;
+		allocate(oldHashes.length * 2);
+		for(int i = 0; i < oldHashes.length; i++) {
+			if(oldHashes[i] != 0) {
+				place(oldHashes[i], oldEntries[i]);
+			}
+		}
+		n = oldSize;
+	}
+}
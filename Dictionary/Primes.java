@@ -0,0 +1,36 @@
+package dict;
+
+/**
+ * Prime helpers shared by the hash tables that size themselves with primes.
+ */
+final class Primes {
+
+	private Primes() {
+	}
+
+	/**
+	 * Returns true iff n is prime.
+	 * @param n	integer to be checked
+	 */
+	static boolean isPrime(int n) {
+		if(n < 2) {
+			return false;
+		}
+		for(int i = 2; (long)i * i <= n; i++) {
+			if(n % i == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the smallest prime that is at least n.
+	 */
+	static int atLeast(int n) {
+		while(!isPrime(n)) {
+			n++;
+		}
+		return n;
+	}
+}
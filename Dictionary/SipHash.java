@@ -0,0 +1,89 @@
+package dict;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * SipHash-2-4 (Aumasson and Bernstein) with a random key drawn for every table, over a
+ * power-of-two number of buckets. Strings are hashed as their UTF-16LE bytes; other keys as
+ * the four little-endian bytes of their hash codes.
+ */
+class SipHash implements HashStrategy {
+
+	public HashStrategy.Function create(int minBuckets) {
+		final int size = FibonacciHash.powerOfTwoAtLeast(minBuckets);
+		final int shift = 64 - Integer.numberOfTrailingZeros(size);
+		ThreadLocalRandom rand = ThreadLocalRandom.current();
+		final long k0 = rand.nextLong();
+		final long k1 = rand.nextLong();
+		return new HashStrategy.Function() {
+			public int buckets() {
+				return size;
+			}
+
+			public int index(Object key) {
+				long h = key instanceof String ? hash(k0, k1, (String)key)
+						: hash(k0, k1, key.hashCode());
+				return (int)(h >>> shift);
+			}
+		};
+	}
+
+	/**
+	 * Returns the SipHash-2-4 of the UTF-16LE encoding of s.
+	 */
+	static long hash(long k0, long k1, String s) {
+		long v0 = k0 ^ 0x736f6d6570736575L;
+		long v1 = k1 ^ 0x646f72616e646f6dL;
+		long v2 = k0 ^ 0x6c7967656e657261L;
+		long v3 = k1 ^ 0x7465646279746573L;
+		int length = s.length();
+		int i = 0;
+		for(; i + 4 <= length; i += 4) { //Four chars per 64-bit word
+			long m = s.charAt(i) | (long)s.charAt(i + 1) << 16 | (long)s.charAt(i + 2) << 32
+					| (long)s.charAt(i + 3) << 48;
+			v3 ^= m;
+			for(int r = 0; r < 2; r++) {
+				v0 += v1; v1 = Long.rotateLeft(v1, 13); v1 ^= v0; v0 = Long.rotateLeft(v0, 32);
+				v2 += v3; v3 = Long.rotateLeft(v3, 16); v3 ^= v2;
+				v0 += v3; v3 = Long.rotateLeft(v3, 21); v3 ^= v0;
+				v2 += v1; v1 = Long.rotateLeft(v1, 17); v1 ^= v2; v2 = Long.rotateLeft(v2, 32);
+			}
+			v0 ^= m;
+		}
+		long last = (long)(2 * length) << 56; //Remaining chars, then the byte length
+		for(int shift = 0; i < length; i++, shift += 16) {
+			last |= (long)s.charAt(i) << shift;
+		}
+		return finish(v0, v1, v2, v3, last);
+	}
+
+	/**
+	 * Returns the SipHash-2-4 of the four little-endian bytes of code.
+	 */
+	static long hash(long k0, long k1, int code) {
+		return finish(k0 ^ 0x736f6d6570736575L, k1 ^ 0x646f72616e646f6dL,
+				k0 ^ 0x6c7967656e657261L, k1 ^ 0x7465646279746573L,
+				(code & 0xffffffffL) | 4L << 56);
+	}
+
+	/**
+	 * Absorbs the last message word and runs the finalization rounds.
+	 */
+	private static long finish(long v0, long v1, long v2, long v3, long last) {
+		v3 ^= last;
+		for(int r = 0; r < 2; r++) {
+			v0 += v1; v1 = Long.rotateLeft(v1, 13); v1 ^= v0; v0 = Long.rotateLeft(v0, 32);
+			v2 += v3; v3 = Long.rotateLeft(v3, 16); v3 ^= v2;
+			v0 += v3; v3 = Long.rotateLeft(v3, 21); v3 ^= v0;
+			v2 += v1; v1 = Long.rotateLeft(v1, 17); v1 ^= v2; v2 = Long.rotateLeft(v2, 32);
+		}
+		v0 ^= last;
+		v2 ^= 0xff;
+		for(int r = 0; r < 4; r++) {
+			v0 += v1; v1 = Long.rotateLeft(v1, 13); v1 ^= v0; v0 = Long.rotateLeft(v0, 32);
+			v2 += v3; v3 = Long.rotateLeft(v3, 16); v3 ^= v2;
+			v0 += v3; v3 = Long.rotateLeft(v3, 21); v3 ^= v0;
+			v2 += v1; v1 = Long.rotateLeft(v1, 17); v1 ^= v2; v2 = Long.rotateLeft(v2, 32);
+		}
+		return v0 ^ v1 ^ v2 ^ v3;
+	}
+}
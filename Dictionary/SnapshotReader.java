@@ -0,0 +1,167 @@
+package dict;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+
+/**
+ * Streams the entries of a snapshot written by SnapshotWriter back from a channel. After
+ * construction, count() gives the number of entries; each call to next() reads one entry,
+ * after which key() and value() return it. The channel is not closed.
+ *
+ * Reads are buffered, so the reader may take bytes from the channel that follow the
+ * snapshot. If the channel is a SeekableByteChannel, such as a FileChannel, its position is
+ * moved back to the end of the snapshot once the last entry has been read, so snapshots
+ * written back to back can be read back to back. Other channels, such as pipes and sockets,
+ * must not be read again after a snapshot.
+ * @param <K>	type of key objects to be read
+ * @param <V>	type of value objects to be read
+ */
+public class SnapshotReader<K, V> {
+
+	private static final int MIN_ENTRY_BYTES = 8; //The two length prefixes of an empty entry
+
+	private final ReadableByteChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(SnapshotWriter.BUFFER_SIZE);
+	private final Codec<K> keyCodec;
+	private final Codec<V> valueCodec;
+	private final long count;
+	private long read;
+	private K key;
+	private V value;
+
+	/**
+	 * Reads the header of a snapshot.
+	 * @param channel		source of the snapshot
+	 * @param keyCodec		deserializer for keys
+	 * @param valueCodec	deserializer for values
+	 * @throws IOException	if the channel does not start with a snapshot header, or if the
+	 * 						channel has a known size, as a FileChannel does, and the header
+	 * 						claims more entries than the rest of the channel can hold
+	 */
+	public SnapshotReader(ReadableByteChannel channel, Codec<K> keyCodec, Codec<V> valueCodec)
+			throws IOException {
+		this.channel = channel;
+		this.keyCodec = keyCodec;
+		this.valueCodec = valueCodec;
+		buffer.flip();
+		require(16);
+		if(buffer.getInt() != SnapshotWriter.MAGIC) {
+			throw new IOException("not a snapshot");
+		}
+		int version = buffer.getInt();
+		if(version != SnapshotWriter.VERSION) {
+			throw new IOException("unsupported snapshot version " + version);
+		}
+		count = buffer.getLong();
+		if(count < 0) {
+			throw new IOException("corrupt snapshot header");
+		}
+		if(channel instanceof SeekableByteChannel) {
+			SeekableByteChannel file = (SeekableByteChannel)channel;
+			long left = file.size() - file.position() + buffer.remaining();
+			if(count > left / MIN_ENTRY_BYTES) {
+				throw new IOException("snapshot header claims " + count + " entries but only "
+						+ left + " bytes follow");
+			}
+		}
+		if(count == 0) {
+			release();
+		}
+	}
+
+	/**
+	 * Returns the number of entries in the snapshot.
+	 */
+	public long count() {
+		return count;
+	}
+
+	/**
+	 * Reads the next entry.
+	 * @return	false if every entry has already been read
+	 * @throws EOFException	if the channel ends in the middle of the snapshot
+	 */
+	public boolean next() throws IOException {
+		if(read == count) {
+			return false;
+		}
+		key = keyCodec.decode(take());
+		value = valueCodec.decode(take());
+		read++;
+		if(read == count) {
+			release();
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the key of the entry last read by next(); null before the first.
+	 */
+	public K key() {
+		return key;
+	}
+
+	/**
+	 * Returns the value of the entry last read by next().
+	 */
+	public V value() {
+		return value;
+	}
+
+	/**
+	 * Hands back the buffered bytes that follow the snapshot by moving the position of a
+	 * seekable channel to the end of the snapshot.
+	 */
+	private void release() throws IOException {
+		if(channel instanceof SeekableByteChannel && buffer.hasRemaining()) {
+			SeekableByteChannel file = (SeekableByteChannel)channel;
+			file.position(file.position() - buffer.remaining());
+			buffer.limit(buffer.position());
+		}
+	}
+
+	/**
+	 * Reads one length-prefixed byte array. Arrays larger than the buffer are read straight
+	 * from the channel.
+	 */
+	private byte[] take() throws IOException {
+		require(4);
+		int length = buffer.getInt();
+		if(length < 0) {
+			throw new IOException("corrupt snapshot entry");
+		}
+		byte[] bytes = new byte[length];
+		if(length <= buffer.capacity()) {
+			require(length);
+			buffer.get(bytes);
+		} else {
+			ByteBuffer dst = ByteBuffer.wrap(bytes);
+			dst.put(buffer);
+			while(dst.hasRemaining()) {
+				if(channel.read(dst) < 0) {
+					throw new EOFException();
+				}
+			}
+		}
+		return bytes;
+	}
+
+	/**
+	 * Reads from the channel until at least bytes bytes are buffered.
+	 */
+	private void require(int bytes) throws IOException {
+		if(buffer.remaining() >= bytes) {
+			return;
+		}
+		buffer.compact();
+		while(buffer.position() < bytes) {
+			if(channel.read(buffer) < 0) {
+				throw new EOFException();
+			}
+		}
+		buffer.flip();
+	}
+}
@@ -0,0 +1,89 @@
+package dict;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Streams a snapshot of a collection of entries to a channel. A snapshot is a header (magic
+ * number, format version and entry count) followed by each entry as a length-prefixed key and
+ * a length-prefixed value. Output is buffered, so memory use does not depend on the number of
+ * entries; call finish() after the last entry. The channel is not closed.
+ */
+public class SnapshotWriter {
+
+	static final int MAGIC = 0x44534e50; //"DSNP"
+	static final int VERSION = 1;
+	static final int BUFFER_SIZE = 1 << 16;
+
+	private final WritableByteChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+	private final long count;
+	private long written;
+
+	/**
+	 * Writes the header of a snapshot holding count entries.
+	 * @param channel	destination of the snapshot
+	 * @param count		number of entries that will be written
+	 */
+	public SnapshotWriter(WritableByteChannel channel, long count) {
+		this.channel = channel;
+		this.count = count;
+		buffer.putInt(MAGIC).putInt(VERSION).putLong(count);
+	}
+
+	/**
+	 * Appends one entry to the snapshot.
+	 * @throws IllegalStateException	if count entries have already been written
+	 */
+	public <K, V> void write(K key, Codec<K> keyCodec, V value, Codec<V> valueCodec)
+			throws IOException {
+		if(written == count) {
+			throw new IllegalStateException("snapshot already holds " + count + " entries");
+		}
+		put(keyCodec.encode(key));
+		put(valueCodec.encode(value));
+		written++;
+	}
+
+	/**
+	 * Writes out any buffered bytes.
+	 * @throws IllegalStateException	if fewer entries than promised were written
+	 */
+	public void finish() throws IOException {
+		if(written != count) {
+			throw new IllegalStateException("snapshot holds " + written + " of " + count
+					+ " entries");
+		}
+		flush();
+	}
+
+	/**
+	 * Buffers one length-prefixed byte array. Arrays larger than the buffer go straight to the
+	 * channel.
+	 */
+	private void put(byte[] bytes) throws IOException {
+		if(buffer.remaining() < 4 + bytes.length) {
+			flush();
+		}
+		buffer.putInt(bytes.length);
+		if(bytes.length <= buffer.remaining()) {
+			buffer.put(bytes);
+		} else {
+			flush();
+			drain(ByteBuffer.wrap(bytes));
+		}
+	}
+
+	private void flush() throws IOException {
+		buffer.flip();
+		drain(buffer);
+		buffer.clear();
+	}
+
+	private void drain(ByteBuffer src) throws IOException {
+		while(src.hasRemaining()) {
+			channel.write(src);
+		}
+	}
+}
@@ -0,0 +1,42 @@
+package dict;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Carter-Wegman universal hashing modulo the Mersenne prime 2^61 - 1, followed by a reduction
+ * modulo a prime number of buckets. Reducing modulo a Mersenne prime needs only shifts and
+ * adds; the single division is the final reduction to a bucket.
+ */
+class UniversalHash implements HashStrategy {
+
+	static final long P = (1L << 61) - 1;
+
+	public HashStrategy.Function create(int minBuckets) {
+		final int buckets = Primes.atLeast(Math.max(minBuckets, 2));
+		ThreadLocalRandom rand = ThreadLocalRandom.current();
+		final long a = rand.nextLong(1, P);
+		final long b = rand.nextLong(0, P);
+		return new HashStrategy.Function() {
+			public int buckets() {
+				return buckets;
+			}
+
+			public int index(Object key) {
+				return (int)(hash(a, b, key.hashCode() & 0xffffffffL) % buckets);
+			}
+		};
+	}
+
+	/**
+	 * Returns (a * x + b) mod P, for a and b in [0, P) and x in [0, 2^32).
+	 */
+	static long hash(long a, long b, long x) {
+		long high = (a >>> 32) * x; //Below 2^61; stands for high * 2^32
+		long low = (a & 0xffffffffL) * x; //Below 2^64, read as unsigned
+		//high * 2^32 = (high >>> 29) * 2^61 + (high mod 2^29) * 2^32, and 2^61 = 1 (mod P)
+		long sum = (high >>> 29) + ((high & ((1L << 29) - 1)) << 32);
+		sum += (low & P) + (low >>> 61);
+		sum += b; //Each term is below 2^61, so sum is below 2^63
+		sum = (sum & P) + (sum >>> 61);
+		return sum >= P ? sum - P : sum;
+	}
+}
@@ -1,143 +1,316 @@
 package heap;
+import java.util.Collections;
+import java.util.Comparator;
+
 import list.*;
 
 /**
  * Implementation of a binary heap using an array for a level-order representation of the heap.
  * Index 0 in the array is ignored so that the level-order representation is 1-indexed in the
- * array.
+ * array. The array grows by doubling and shrinks by half once it is less than a quarter full,
+ * so insert and removeMin allocate only on an amortized O(1) fraction of calls.
+ * 
+ * Items are ordered by a Comparator if one is given and by their natural ordering otherwise;
+ * "min" always means the first item under that ordering, so a reversed Comparator gives a
+ * max-heap.
  * @author KushalRanjan
- *
+ * @param <E>	type of items held in the heap
  */
-public class BinaryHeap {
+public class BinaryHeap<E> implements Heap<E> {
+	
+	static final int MIN_CAPACITY = 16;
 	
-	public Comparable[] contents;
+	Object[] contents;
+	int size;
+	final Comparator<? super E> comparator; //null for natural ordering
 	
 	/**
 	 * Test code.
 	 */
 	public static void main(String[] args) {
-		Comparable[] in = new Comparable[15];
+		Integer[] in = new Integer[15];
 		for(int i = 0; i<in.length; i++) {
-			in[i] = new Integer((int)(Math.random()*100));
+			in[i] = (int)(Math.random()*100);
+		}
+		BinaryHeap<Integer> test = new BinaryHeap<Integer>(in);
+		for(int i = 1; i <= test.size; i++) {
+			System.out.print(test.contents[i] + " ");
 		}
-		BinaryHeap test = new BinaryHeap(in);
-		Comparable[] print = test.contents;
-		for(int i = 1; i < print.length; i++) {
-			System.out.print(print[i] + " ");
+		System.out.println();
+		while(test.size() > 0) {
+			System.out.print(test.removeMin() + " ");
 		}
 	}
 	
 	/**
-	 * Constructor for a Comparable array.
+	 * Constructor for an empty heap using natural ordering.
+	 */
+	public BinaryHeap() {
+		this(MIN_CAPACITY, null);
+	}
+	
+	/**
+	 * Constructor for an empty heap ordered by comparator.
+	 */
+	public BinaryHeap(Comparator<? super E> comparator) {
+		this(MIN_CAPACITY, comparator);
+	}
+	
+	/**
+	 * Constructor for an empty heap that can hold initialCapacity items before growing.
+	 * @param initialCapacity	number of items to allocate room for
+	 * @param comparator		ordering of the items; null for natural ordering
 	 */
-	public BinaryHeap(Comparable[] in) {
+	public BinaryHeap(int initialCapacity, Comparator<? super E> comparator) {
+		contents = new Object[Math.max(initialCapacity, 1) + 1];
+		this.comparator = comparator;
+	}
+	
+	/**
+	 * Returns an empty heap whose removeMin returns the largest item by natural ordering.
+	 */
+	public static <T extends Comparable<? super T>> BinaryHeap<T> maxHeap() {
+		return new BinaryHeap<T>(Collections.<T>reverseOrder());
+	}
+	
+	/**
+	 * Constructor for an array, using natural ordering.
+	 */
+	public BinaryHeap(E[] in) {
+		this(in, null);
+	}
+	
+	/**
+	 * Constructor for an array ordered by comparator.
+	 */
+	public BinaryHeap(E[] in, Comparator<? super E> comparator) {
+		this.comparator = comparator;
 		contents = construct(in);
+		size = in.length;
 	}
 	
 	/**
-	 * Constructor for a Comparable LinkedList.
+	 * Constructor for a LinkedList, using natural ordering.
 	 */
-	public BinaryHeap(LinkedList<Comparable> in) {
-		Comparable[] cons = new Comparable[in.size()];
-		Iterator<Comparable> it = in.iterator();
+	public BinaryHeap(LinkedList<E> in) {
+		comparator = null;
+		Object[] cons = new Object[in.size()];
+		Iterator<E> it = in.iterator();
 		for(int i = 0; i<cons.length; i++) {
 			cons[i] = it.next();
 		}
+		contents = construct(cons);
+		size = cons.length;
 	}
 	
 	/**
 	 * Returns the size of this binary heap.
 	 */
 	public int size() {
-		return contents.length - 1;
+		return size;
+	}
+	
+	/**
+	 * Returns true iff this heap has no items.
+	 */
+	public boolean isEmpty() {
+		return size == 0;
 	}
 	
 	/**
 	 * Returns the minimum object in the heap.
 	 */
-	public Comparable min() {
-		if(contents.length < 2) {
+	@SuppressWarnings("unchecked")
+	public E min() {
+		if(size == 0) {
 			return null;
 		}
-		return contents[1];
+		return (E) contents[1];
 	}
 	
 	/**
 	 * Inserts a new item into the heap.
-	 * @param c	new Comparable to be inserted
+	 * @param c	new item to be inserted
 	 */
-	public void insert(Comparable c) {
-		Comparable[] newContents = new Comparable[contents.length + 1];
-		for(int i = 0; i<contents.length; i++) {
-			newContents[i] = contents[i];
+	public void insert(E c) {
+		if(size + 1 == contents.length) {
+			resize(contents.length * 2);
+		}
+		size++;
+		contents[size] = c;
+		bubbleUp(size, contents);
+	}
+	
+	/**
+	 * Inserts every item of items into the heap, growing the array at most once. When the
+	 * batch is at least as large as the heap, the whole array is re-heapified bottom-up
+	 * instead of bubbling each item up.
+	 * @param items	new items to be inserted
+	 */
+	public void insertAll(E[] items) {
+		append(items, 0, items.length);
+	}
+	
+	/**
+	 * Moves every item of other into this heap, leaving other empty. If other is also a
+	 * BinaryHeap, small heaps are melded by bubbling each item up; otherwise both arrays are
+	 * concatenated and rebuilt in O(n + m) time.
+	 * @param other	heap whose items are to be added; must use a compatible ordering
+	 */
+	public void meld(Heap<? extends E> other) {
+		if(!(other instanceof BinaryHeap) || other == this) {
+			Heap.super.meld(other);
+			return;
+		}
+		BinaryHeap<? extends E> heap = (BinaryHeap<? extends E>)other;
+		append(heap.contents, 1, heap.size);
+		heap.makeEmpty();
+	}
+	
+	/**
+	 * Appends count items of src, starting at index from, growing the array at most once.
+	 * When the batch is at least as large as the heap, the whole array is re-heapified
+	 * instead of bubbling each item up.
+	 */
+	private void append(Object[] src, int from, int count) {
+		ensureCapacity(size + count);
+		boolean rebuild = count >= size;
+		System.arraycopy(src, from, contents, size + 1, count);
+		if(rebuild) {
+			size += count;
+			heapify(contents, size);
+		} else {
+			for(int i = 0; i < count; i++) {
+				size++;
+				bubbleUp(size, contents);
+			}
 		}
-		int index = newContents.length - 1;
-		newContents[index] = c;
-		bubbleUp(index, newContents);
-		contents = newContents;
+	}
+	
+	/**
+	 * Removes every item from the heap.
+	 */
+	public void makeEmpty() {
+		contents = new Object[MIN_CAPACITY + 1];
+		size = 0;
 	}
 	
 	/**
 	 * Returns and removes the minimum entry in the heap.
 	 * @return	the minimum entry in the heap
 	 */
-	public Comparable removeMin() {
-		if(contents.length < 2) {
+	@SuppressWarnings("unchecked")
+	public E removeMin() {
+		if(size == 0) {
 			return null;
 		}
-		Comparable ret = contents[1];
-		contents[1] = contents[contents.length-1];
-		bubbleDown(1, contents);
-		Comparable[] newArr = new Comparable[contents.length - 1];
-		for(int i = 0; i < newArr.length; i++) {
-			newArr[i] = contents[i];
+		E ret = (E) contents[1];
+		contents[1] = contents[size];
+		contents[size] = null;
+		size--;
+		bubbleDown(1, contents, size);
+		if(size < contents.length / 4 && contents.length / 2 > MIN_CAPACITY) {
+			resize(contents.length / 2);
 		}
-		contents = newArr;
 		return ret;
 	}
 	
+	/**
+	 * Grows the backing array, if necessary, so that it can hold capacity items.
+	 */
+	public void ensureCapacity(int capacity) {
+		if(capacity + 1 > contents.length) {
+			resize(Math.max(capacity + 1, contents.length * 2));
+		}
+	}
+	
+	/**
+	 * Shrinks the backing array to exactly the current number of items.
+	 */
+	public void trimToSize() {
+		if(size + 1 < contents.length) {
+			resize(size + 1);
+		}
+	}
+	
+	/**
+	 * Copies the heap into a new backing array of the specified length.
+	 */
+	void resize(int length) {
+		Object[] newContents = new Object[length];
+		System.arraycopy(contents, 0, newContents, 0, size + 1);
+		contents = newContents;
+	}
+	
 	/**
 	 * Initializes and populates an array representation of a a binary heap.
-	 * @param in	Comparable[] of items to be used
-	 * @return		a Comparable[] that represents the level-order traversal of a tree that
+	 * @param in	array of items to be used
+	 * @return		an array that represents the level-order traversal of a tree that
 	 * 				preserves the heap-order property
 	 */
-	private Comparable[] construct(Comparable[] in) {
-		Comparable[] out = new Comparable[in.length + 1];
-		for(int i = 1; i < out.length; i++) {
-			out[i] = in[i-1];
-		}
-		int lastNonLeaf = parent(out.length - 1);
-		for(int j = lastNonLeaf; j >= 1; j--) {
-			while((left(j) < out.length && out[left(j)].compareTo(out[j]) < 0)
-					|| (right(j) < out.length && out[right(j)].compareTo(out[j]) < 0)) {
-				int check = j;
-				bubbleDown(check, out);
+	private Object[] construct(Object[] in) {
+		Object[] out = new Object[in.length + 1];
+		System.arraycopy(in, 0, out, 1, in.length);
+		heapify(out, in.length);
+		return out;
+	}
+	
+	/**
+	 * Restores the heap-order property over arr[1...n] in O(n) time using Floyd's method:
+	 * every non-leaf, from the last one back to the root, is sifted into its subtree.
+	 */
+	private void heapify(Object[] arr, int n) {
+		for(int j = parent(n); j >= 1; j--) {
+			siftHole(j, arr, n);
+		}
+	}
+	
+	/**
+	 * Sifts the item at position index into its subtree, bottom-up: the hole left by the item
+	 * is first pushed all the way to a leaf along the path of smaller children, at one
+	 * comparison per level, and the item is then bubbled up from that leaf. Since the item
+	 * usually belongs near the bottom, this needs fewer comparisons than comparing it against
+	 * both children at every level.
+	 * @param index	position of the item to sift
+	 * @param arr	the array to use for the process
+	 * @param n		index of the last item of the heap in arr
+	 */
+	private void siftHole(int index, Object[] arr, int n) {
+		Object item = arr[index];
+		int hole = index;
+		while(left(hole) <= n) {
+			int child = left(hole);
+			if(child < n && less(arr[child + 1], arr[child])) {
+				child++;
 			}
+			arr[hole] = arr[child];
+			hole = child;
 		}
-		return out;
+		while(hole > index && less(item, arr[parent(hole)])) {
+			arr[hole] = arr[parent(hole)];
+			hole = parent(hole);
+		}
+		arr[hole] = item;
 	}
 	
 	/**
-	 * The item at position index in arr is bubbled down until it is smaller than both of its
-	 * children
+	 * The item at position index in arr is bubbled down until it is no larger than either of
+	 * its children, always swapping with the smaller child.
 	 * @param index	starting index of the item to be bubbled down
 	 * @param arr	the array to use for the process
+	 * @param n		index of the last item of the heap in arr
 	 */
-	private void bubbleDown(int index, Comparable[] arr) {
-		while((left(index) < arr.length && arr[left(index)].compareTo(arr[index]) < 0)
-				|| (right(index) < arr.length && arr[right(index)].compareTo(arr[index]) < 0)) {
-			if(arr[left(index)].compareTo(arr[index]) < 0) { //Entry is larger than left
-				Comparable temp = arr[left(index)];
-				arr[left(index)] = arr[index];
-				arr[index] = temp;
-				index = left(index);
-			} else { //Entry is larger than right
-				Comparable temp = arr[right(index)];
-				arr[right(index)] = arr[index];
-				arr[index] = temp;
-				index = right(index);
+	void bubbleDown(int index, Object[] arr, int n) {
+		while(left(index) <= n) {
+			int child = left(index);
+			if(right(index) <= n && less(arr[right(index)], arr[child])) {
+				child = right(index);
 			}
+			if(!less(arr[child], arr[index])) {
+				break;
+			}
+			swap(arr, index, child);
+			index = child;
 		}
 	}
 	
@@ -147,16 +320,35 @@ public class BinaryHeap {
 	 * @param index	starting index of the item to be bubbled down
 	 * @param arr	the array to use for the process
 	 */
-	private void bubbleUp(int index, Comparable[] arr) {
+	void bubbleUp(int index, Object[] arr) {
 		while(parent(index) != 0 
-				&& arr[index].compareTo(arr[parent(index)]) < 0) {
-			Comparable temp = arr[parent(index)];
-			arr[parent(index)] = arr[index];
-			arr[index] = temp;
+				&& less(arr[index], arr[parent(index)])) {
+			swap(arr, index, parent(index));
 			index = parent(index);
 		}
 	}
 	
+	/**
+	 * Exchanges the items at positions i and j of arr. Every move made by bubbleUp and
+	 * bubbleDown goes through here, so subclasses can track positions by overriding it.
+	 */
+	void swap(Object[] arr, int i, int j) {
+		Object temp = arr[i];
+		arr[i] = arr[j];
+		arr[j] = temp;
+	}
+	
+	/**
+	 * Returns true iff a comes strictly before b in this heap's ordering.
+	 */
+	@SuppressWarnings("unchecked")
+	boolean less(Object a, Object b) {
+		if(comparator == null) {
+			return ((Comparable<? super E>) a).compareTo((E) b) < 0;
+		}
+		return comparator.compare((E) a, (E) b) < 0;
+	}
+	
 	/**
 	 * Returns the index of the parent of the node with the specified index.
 	 */
@@ -0,0 +1,246 @@
+package heap;
+import java.util.Comparator;
+
+/**
+ * Implementation of a binomial heap: a list of heap-ordered binomial trees with distinct
+ * degrees, kept in increasing order of degree. Two heaps are melded by merging their root
+ * lists like binary numbers are added, in O(log n) time; insert takes O(1) amortized time and
+ * removeMin takes O(log n) time.
+ * @param <E>	type of items held in the heap
+ */
+public class BinomialHeap<E> implements Heap<E> {
+
+	private Node<E> head; //Root of lowest degree
+	private int size;
+	private final Comparator<? super E> comparator; //null for natural ordering
+
+	/**
+	 * Root of a binomial tree of order degree. Children are kept in decreasing order of degree.
+	 */
+	private static class Node<E> {
+		E item;
+		int degree;
+		Node<E> child; //Child of highest degree
+		Node<E> sibling; //Next root, or next child of the same parent
+
+		Node(E item) {
+			this.item = item;
+		}
+	}
+
+	/**
+	 * Test code.
+	 */
+	public static void main(String[] args) {
+		BinomialHeap<Integer> a = new BinomialHeap<Integer>();
+		BinomialHeap<Integer> b = new BinomialHeap<Integer>();
+		for(int i = 0; i < 10; i++) {
+			a.insert(i * 2);
+			b.insert(i * 2 + 1);
+		}
+		a.meld(b);
+		while(!a.isEmpty()) {
+			System.out.print(a.removeMin() + " ");
+		}
+	}
+
+	/**
+	 * Constructor for an empty heap using natural ordering.
+	 */
+	public BinomialHeap() {
+		this(null);
+	}
+
+	/**
+	 * Constructor for an empty heap ordered by comparator.
+	 */
+	public BinomialHeap(Comparator<? super E> comparator) {
+		this.comparator = comparator;
+	}
+
+	/**
+	 * Returns the size of this heap.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns true iff this heap has no items.
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns the minimum object in the heap.
+	 */
+	public E min() {
+		Node<E> min = minRoot();
+		return min == null ? null : min.item;
+	}
+
+	/**
+	 * Inserts a new item into the heap. Like incrementing a binary number, the new tree of
+	 * degree 0 is linked with roots at the front of the list while their degrees match; each
+	 * link removes a tree, so insert takes O(1) amortized time and O(log n) in the worst case.
+	 */
+	public void insert(E item) {
+		Node<E> carry = new Node<E>(item);
+		while(head != null && head.degree == carry.degree) {
+			Node<E> root = head;
+			head = head.sibling;
+			if(less(root.item, carry.item)) {
+				link(carry, root);
+				carry = root;
+			} else {
+				link(root, carry);
+			}
+		}
+		carry.sibling = head;
+		head = carry;
+		size++;
+	}
+
+	/**
+	 * Moves every item of other into this heap, leaving other empty. If other is also a
+	 * BinomialHeap this takes O(log n) time.
+	 * @param other	heap to meld in; must use a compatible ordering
+	 */
+	@SuppressWarnings("unchecked")
+	public void meld(Heap<? extends E> other) {
+		if(!(other instanceof BinomialHeap) || other == this) {
+			Heap.super.meld(other);
+			return;
+		}
+		BinomialHeap<E> heap = (BinomialHeap<E>)other; //Its items are all Es
+		head = union(head, heap.head);
+		size += heap.size;
+		heap.head = null;
+		heap.size = 0;
+	}
+
+	/**
+	 * Returns and removes the minimum entry in the heap.
+	 * @return	the minimum entry in the heap
+	 */
+	public E removeMin() {
+		Node<E> min = minRoot();
+		if(min == null) {
+			return null;
+		}
+		Node<E> prev = null; //Unlink min from the root list
+		for(Node<E> node = head; node != min; node = node.sibling) {
+			prev = node;
+		}
+		if(prev == null) {
+			head = min.sibling;
+		} else {
+			prev.sibling = min.sibling;
+		}
+		Node<E> children = null; //Reverse the children into increasing order of degree
+		Node<E> child = min.child;
+		while(child != null) {
+			Node<E> next = child.sibling;
+			child.sibling = children;
+			children = child;
+			child = next;
+		}
+		head = union(head, children);
+		size--;
+		return min.item;
+	}
+
+	/**
+	 * Removes every item from the heap.
+	 */
+	public void makeEmpty() {
+		head = null;
+		size = 0;
+	}
+
+	/**
+	 * Returns the root holding the minimum item; null if the heap is empty.
+	 */
+	private Node<E> minRoot() {
+		Node<E> min = head;
+		for(Node<E> node = head; node != null; node = node.sibling) {
+			if(less(node.item, min.item)) {
+				min = node;
+			}
+		}
+		return min;
+	}
+
+	/**
+	 * Merges two root lists, each in increasing order of degree, and links roots of equal
+	 * degree until all degrees are distinct. Returns the head of the combined list.
+	 */
+	private Node<E> union(Node<E> a, Node<E> b) {
+		Node<E> merged = null;
+		Node<E> tail = null;
+		while(a != null || b != null) { //Merge by degree
+			Node<E> next;
+			if(b == null || (a != null && a.degree <= b.degree)) {
+				next = a;
+				a = a.sibling;
+			} else {
+				next = b;
+				b = b.sibling;
+			}
+			if(tail == null) {
+				merged = next;
+			} else {
+				tail.sibling = next;
+			}
+			tail = next;
+		}
+		if(tail == null) {
+			return null;
+		}
+		tail.sibling = null;
+
+		Node<E> prev = null;
+		Node<E> node = merged;
+		while(node.sibling != null) {
+			Node<E> next = node.sibling;
+			if(node.degree != next.degree
+					|| (next.sibling != null && next.sibling.degree == node.degree)) {
+				prev = node; //Nothing to link here, or let the next pair link first
+				node = next;
+			} else if(!less(next.item, node.item)) {
+				node.sibling = next.sibling;
+				link(next, node);
+			} else {
+				if(prev == null) {
+					merged = next;
+				} else {
+					prev.sibling = next;
+				}
+				link(node, next);
+				node = next;
+			}
+		}
+		return merged;
+	}
+
+	/**
+	 * Makes the tree rooted at child the highest-degree child of parent.
+	 */
+	private void link(Node<E> child, Node<E> parent) {
+		child.sibling = parent.child;
+		parent.child = child;
+		parent.degree++;
+	}
+
+	/**
+	 * Returns true iff a comes strictly before b in this heap's ordering.
+	 */
+	@SuppressWarnings("unchecked")
+	private boolean less(E a, E b) {
+		if(comparator == null) {
+			return ((Comparable<? super E>) a).compareTo(b) < 0;
+		}
+		return comparator.compare(a, b) < 0;
+	}
+}
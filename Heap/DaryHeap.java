@@ -0,0 +1,193 @@
+package heap;
+import java.util.Comparator;
+
+/**
+ * Implementation of a d-ary heap using an array for a level-order representation of the heap.
+ * Each node has up to d children, which shortens the tree to log_d(n) levels: inserts get
+ * cheaper, while removeMin compares more children per level but touches fewer levels.
+ *
+ * The root is stored at index d - 1, so that the children of every node start at a multiple of
+ * d and each sibling group occupies one aligned block of the array. With 4-byte references, an
+ * arity of 16 makes each sibling group one 64-byte cache line. (The JVM does not expose array
+ * addresses, so blocks are aligned relative to the start of the array.)
+ * @param <E>	type of items held in the heap
+ */
+public class DaryHeap<E> implements Heap<E> {
+
+	private static final int MIN_CAPACITY = 16;
+
+	private final int d; //Arity
+	private final int offset; //Index of the root; every sibling group starts at a multiple of d
+	private Object[] contents;
+	private int size;
+	private final Comparator<? super E> comparator; //null for natural ordering
+
+	/**
+	 * Test code.
+	 */
+	public static void main(String[] args) {
+		DaryHeap<Integer> test = new DaryHeap<Integer>(4);
+		for(int i = 0; i < 15; i++) {
+			test.insert((int)(Math.random()*100));
+		}
+		while(test.size() > 0) {
+			System.out.print(test.removeMin() + " ");
+		}
+	}
+
+	/**
+	 * Constructor for an empty heap with the specified arity, using natural ordering.
+	 */
+	public DaryHeap(int arity) {
+		this(arity, MIN_CAPACITY, null);
+	}
+
+	/**
+	 * Constructor for an empty heap.
+	 * @param arity				maximum number of children per node; at least 2
+	 * @param initialCapacity	number of items to allocate room for
+	 * @param comparator		ordering of the items; null for natural ordering
+	 */
+	public DaryHeap(int arity, int initialCapacity, Comparator<? super E> comparator) {
+		if(arity < 2) {
+			throw new IllegalArgumentException("arity must be at least 2");
+		}
+		d = arity;
+		offset = arity - 1;
+		contents = new Object[offset + Math.max(initialCapacity, 1)];
+		this.comparator = comparator;
+	}
+
+	/**
+	 * Returns the size of this heap.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns true iff this heap has no items.
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns the arity of this heap.
+	 */
+	public int arity() {
+		return d;
+	}
+
+	/**
+	 * Returns the minimum object in the heap.
+	 */
+	@SuppressWarnings("unchecked")
+	public E min() {
+		return size == 0 ? null : (E) contents[offset];
+	}
+
+	/**
+	 * Inserts a new item into the heap.
+	 * @param c	new item to be inserted
+	 */
+	public void insert(E c) {
+		if(offset + size == contents.length) {
+			resize(contents.length * 2);
+		}
+		size++;
+		siftUp(size - 1, c);
+	}
+
+	/**
+	 * Returns and removes the minimum entry in the heap.
+	 * @return	the minimum entry in the heap
+	 */
+	@SuppressWarnings("unchecked")
+	public E removeMin() {
+		if(size == 0) {
+			return null;
+		}
+		E ret = (E) contents[offset];
+		size--;
+		Object last = contents[offset + size];
+		contents[offset + size] = null;
+		if(size > 0) {
+			siftDown(0, last);
+		}
+		if(size < contents.length / 4 && contents.length / 2 > offset + MIN_CAPACITY) {
+			resize(contents.length / 2);
+		}
+		return ret;
+	}
+
+	/**
+	 * Removes every item from the heap.
+	 */
+	public void makeEmpty() {
+		contents = new Object[offset + MIN_CAPACITY];
+		size = 0;
+	}
+
+	/**
+	 * Moves a hole at node i up until item can be stored in it. Nodes are numbered in level
+	 * order from 0; node i is stored at index offset + i.
+	 */
+	private void siftUp(int i, Object item) {
+		while(i > 0) {
+			int parent = (i - 1) / d;
+			Object p = contents[offset + parent];
+			if(!less(item, p)) {
+				break;
+			}
+			contents[offset + i] = p;
+			i = parent;
+		}
+		contents[offset + i] = item;
+	}
+
+	/**
+	 * Moves a hole at node i down, towards its smallest child, until item can be stored in it.
+	 */
+	private void siftDown(int i, Object item) {
+		while(true) {
+			int first = d * i + 1;
+			if(first >= size) {
+				break;
+			}
+			int end = Math.min(first + d, size);
+			int best = first;
+			for(int c = first + 1; c < end; c++) {
+				if(less(contents[offset + c], contents[offset + best])) {
+					best = c;
+				}
+			}
+			if(!less(contents[offset + best], item)) {
+				break;
+			}
+			contents[offset + i] = contents[offset + best];
+			i = best;
+		}
+		contents[offset + i] = item;
+	}
+
+	/**
+	 * Returns true iff a comes strictly before b in this heap's ordering.
+	 */
+	@SuppressWarnings("unchecked")
+	private boolean less(Object a, Object b) {
+		if(comparator == null) {
+			return ((Comparable<? super E>) a).compareTo((E) b) < 0;
+		}
+		return comparator.compare((E) a, (E) b) < 0;
+	}
+
+	/**
+	 * Copies the heap into a new backing array of the specified length.
+	 */
+	private void resize(int length) {
+		Object[] newContents = new Object[length];
+		System.arraycopy(contents, offset, newContents, offset, size);
+		contents = newContents;
+	}
+}
@@ -0,0 +1,77 @@
+package heap;
+
+/**
+ *  An interface for priority queues.  Items are ordered either by their natural
+ *  ordering or by a Comparator supplied to the implementation; the "minimum" is
+ *  whichever item comes first under that ordering.
+ **/
+
+public interface Heap<E> {
+
+  /**
+   *  Returns the number of items stored in the heap.  Equal items each still
+   *  count as a separate item.
+   *  @return number of items in the heap.
+   **/
+
+  public int size();
+
+  /**
+   *  Tests if the heap is empty.
+   *
+   *  @return true if the heap has no items; false otherwise.
+   **/
+
+  public boolean isEmpty();
+
+  /**
+   *  Insert an item into the heap.  Equal items can coexist in the heap.
+   *
+   *  @param item the item to insert.
+   **/
+
+  public void insert(E item);
+
+  /**
+   *  Return the minimum item in the heap without removing it.  If several items
+   *  are minimal, choose one arbitrarily.
+   *
+   *  @return the minimum item, or null if the heap is empty.
+   **/
+
+  public E min();
+
+  /**
+   *  Remove the minimum item from the heap and return it.  If several items are
+   *  minimal, choose one arbitrarily.
+   *
+   *  @return the minimum item, or null if the heap is empty.
+   **/
+
+  public E removeMin();
+
+  /**
+   *  Remove all items from the heap.
+   */
+
+  public void makeEmpty();
+
+  /**
+   *  Move every item of other into this heap, leaving other empty.  Both heaps
+   *  must use a compatible ordering.  This default drains other through
+   *  removeMin() and insert(); implementations meld a heap of their own kind
+   *  faster.
+   *
+   *  @param other the heap whose items are to be added.
+   **/
+
+  public default void meld(Heap<? extends E> other) {
+    if(other == this) {
+      throw new IllegalArgumentException("cannot meld a heap into itself");
+    }
+    while(!other.isEmpty()) {
+      insert(other.removeMin());
+    }
+  }
+
+}
@@ -0,0 +1,255 @@
+package heap;
+import java.util.Comparator;
+
+/**
+ * Binary heap that hands out an int handle for every inserted item and tracks the position of
+ * each handle, so that the item behind a handle can be re-prioritized or removed in O(log n)
+ * time. Handles of removed items are recycled by later inserts.
+ * @param <E>	type of items held in the heap
+ */
+public class IndexedHeap<E> extends BinaryHeap<E> {
+
+	private int[] handleAt; //Handle of the item at each heap position
+	private int[] position; //Heap position of each handle; 0 if the handle is not in use
+	private int[] freeHandles; //Stack of recycled handles
+	private int freeCount;
+	private int nextHandle; //Smallest handle never handed out
+
+	/**
+	 * Test code.
+	 */
+	public static void main(String[] args) {
+		IndexedHeap<Integer> heap = new IndexedHeap<Integer>();
+		int[] handles = new int[10];
+		for(int i = 0; i < handles.length; i++) {
+			handles[i] = heap.add(i * 10);
+		}
+		heap.decreaseKey(handles[7], -5);
+		heap.increaseKey(handles[0], 55);
+		heap.remove(handles[3]);
+		while(heap.size() > 0) {
+			System.out.print(heap.removeMin() + " ");
+		}
+	}
+
+	/**
+	 * Constructor for an empty heap using natural ordering.
+	 */
+	public IndexedHeap() {
+		this(MIN_CAPACITY, null);
+	}
+
+	/**
+	 * Constructor for an empty heap that can hold initialCapacity items before growing.
+	 * @param initialCapacity	number of items to allocate room for
+	 * @param comparator		ordering of the items; null for natural ordering
+	 */
+	public IndexedHeap(int initialCapacity, Comparator<? super E> comparator) {
+		super(initialCapacity, comparator);
+		handleAt = new int[contents.length];
+		position = new int[contents.length];
+		freeHandles = new int[contents.length];
+	}
+
+	/**
+	 * Inserts a new item into the heap.
+	 * @param item	new item to be inserted
+	 * @return		a handle that refers to item until it is removed
+	 */
+	public int add(E item) {
+		if(size + 1 == contents.length) {
+			resize(contents.length * 2);
+		}
+		int handle = freeCount > 0 ? freeHandles[--freeCount] : newHandle();
+		size++;
+		contents[size] = item;
+		handleAt[size] = handle;
+		position[handle] = size;
+		bubbleUp(size, contents);
+		return handle;
+	}
+
+	/**
+	 * Inserts a new item into the heap, discarding its handle.
+	 */
+	public void insert(E item) {
+		add(item);
+	}
+
+	/**
+	 * Inserts every item of items into the heap, discarding their handles.
+	 */
+	public void insertAll(E[] items) {
+		ensureCapacity(size + items.length);
+		for(int i = 0; i < items.length; i++) {
+			add(items[i]);
+		}
+	}
+
+	/**
+	 * Moves every item of other into this heap one at a time, discarding their handles, and
+	 * leaves other empty.
+	 */
+	@SuppressWarnings("unchecked")
+	public void meld(Heap<? extends E> other) {
+		if(other == this) {
+			throw new IllegalArgumentException("cannot meld a heap into itself");
+		}
+		if(!(other instanceof BinaryHeap)) {
+			while(!other.isEmpty()) {
+				add(other.removeMin());
+			}
+			return;
+		}
+		BinaryHeap<? extends E> heap = (BinaryHeap<? extends E>)other;
+		ensureCapacity(size + heap.size);
+		for(int i = 1; i <= heap.size; i++) {
+			add((E) heap.contents[i]);
+		}
+		heap.makeEmpty();
+	}
+
+	/**
+	 * Removes every item from the heap and releases every handle.
+	 */
+	public void makeEmpty() {
+		super.makeEmpty();
+		handleAt = new int[contents.length];
+		position = new int[contents.length];
+		freeHandles = new int[contents.length];
+		freeCount = 0;
+		nextHandle = 0;
+	}
+
+	/**
+	 * Returns and removes the minimum entry in the heap, releasing its handle.
+	 */
+	public E removeMin() {
+		return size == 0 ? null : removeAt(1);
+	}
+
+	/**
+	 * Returns true iff handle refers to an item currently in the heap.
+	 */
+	public boolean contains(int handle) {
+		return handle >= 0 && handle < nextHandle && position[handle] != 0;
+	}
+
+	/**
+	 * Returns the item referred to by handle.
+	 * @throws IllegalArgumentException	if handle is not in use
+	 */
+	@SuppressWarnings("unchecked")
+	public E get(int handle) {
+		return (E) contents[positionOf(handle)];
+	}
+
+	/**
+	 * Replaces the item referred to by handle with one that does not come after it.
+	 * @throws IllegalArgumentException	if handle is not in use or item comes after the
+	 * 									current item
+	 */
+	public void decreaseKey(int handle, E item) {
+		int index = positionOf(handle);
+		if(less(contents[index], item)) {
+			throw new IllegalArgumentException("new item comes after the current item");
+		}
+		contents[index] = item;
+		bubbleUp(index, contents);
+	}
+
+	/**
+	 * Replaces the item referred to by handle with one that does not come before it.
+	 * @throws IllegalArgumentException	if handle is not in use or item comes before the
+	 * 									current item
+	 */
+	public void increaseKey(int handle, E item) {
+		int index = positionOf(handle);
+		if(less(item, contents[index])) {
+			throw new IllegalArgumentException("new item comes before the current item");
+		}
+		contents[index] = item;
+		bubbleDown(index, contents, size);
+	}
+
+	/**
+	 * Removes the item referred to by handle and releases the handle.
+	 * @return	the removed item
+	 * @throws IllegalArgumentException	if handle is not in use
+	 */
+	public E remove(int handle) {
+		return removeAt(positionOf(handle));
+	}
+
+	/**
+	 * Returns the heap position of handle.
+	 * @throws IllegalArgumentException	if handle is not in use
+	 */
+	private int positionOf(int handle) {
+		if(!contains(handle)) {
+			throw new IllegalArgumentException("handle " + handle + " is not in the heap");
+		}
+		return position[handle];
+	}
+
+	/**
+	 * Removes the item at heap position index by swapping the last item into its place and
+	 * moving that item up or down as needed.
+	 */
+	@SuppressWarnings("unchecked")
+	private E removeAt(int index) {
+		E ret = (E) contents[index];
+		int handle = handleAt[index];
+		swap(contents, index, size);
+		contents[size] = null;
+		position[handle] = 0;
+		freeHandles[freeCount++] = handle;
+		size--;
+		if(index <= size) {
+			int moved = handleAt[index];
+			bubbleUp(index, contents);
+			bubbleDown(position[moved], contents, size);
+		}
+		if(size < contents.length / 4 && contents.length / 2 > MIN_CAPACITY) {
+			resize(contents.length / 2);
+		}
+		return ret;
+	}
+
+	/**
+	 * Hands out a handle that has never been used, growing the handle tables if necessary.
+	 */
+	private int newHandle() {
+		if(nextHandle == position.length) {
+			int[] newPosition = new int[position.length * 2];
+			System.arraycopy(position, 0, newPosition, 0, position.length);
+			position = newPosition;
+			int[] newFree = new int[position.length];
+			System.arraycopy(freeHandles, 0, newFree, 0, freeCount);
+			freeHandles = newFree;
+		}
+		return nextHandle++;
+	}
+
+	/**
+	 * Swaps two items and keeps the position table in step with them.
+	 */
+	void swap(Object[] arr, int i, int j) {
+		super.swap(arr, i, j);
+		int temp = handleAt[i];
+		handleAt[i] = handleAt[j];
+		handleAt[j] = temp;
+		position[handleAt[i]] = i;
+		position[handleAt[j]] = j;
+	}
+
+	/**
+	 * Resizes the position-indexed handle table along with the item array.
+	 */
+	void resize(int length) {
+		super.resize(length);
+		int[] newHandleAt = new int[length];
+		System.arraycopy(handleAt, 0, newHandleAt, 0, size + 1);
+		handleAt = newHandleAt;
+	}
+}
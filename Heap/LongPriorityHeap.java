@@ -0,0 +1,161 @@
+package heap;
+
+/**
+ * Binary min-heap keyed by primitive long priorities. Priorities and payloads are stored in
+ * parallel 1-indexed arrays using the same level-order layout as BinaryHeap, so scheduling an
+ * item allocates nothing beyond occasional array growth. For a max-heap, negate priorities.
+ * @param <E>	type of payload objects held in the heap
+ */
+public class LongPriorityHeap<E> {
+
+	private static final int MIN_CAPACITY = 16;
+
+	private long[] priorities;
+	private Object[] payloads;
+	private int size;
+
+	/**
+	 * Test code.
+	 */
+	public static void main(String[] args) {
+		LongPriorityHeap<String> timers = new LongPriorityHeap<String>();
+		timers.insert(300, "c");
+		timers.insert(100, "a");
+		timers.insert(200, "b");
+		while(timers.size() > 0) {
+			long due = timers.minPriority();
+			System.out.print(timers.removeMin() + "@" + due + " ");
+		}
+	}
+
+	/**
+	 * Constructor for an empty heap.
+	 */
+	public LongPriorityHeap() {
+		this(MIN_CAPACITY);
+	}
+
+	/**
+	 * Constructor for an empty heap that can hold initialCapacity items before growing.
+	 */
+	public LongPriorityHeap(int initialCapacity) {
+		priorities = new long[Math.max(initialCapacity, 1) + 1];
+		payloads = new Object[priorities.length];
+	}
+
+	/**
+	 * Returns the size of this heap.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the smallest priority in the heap.
+	 * @throws IllegalStateException	if the heap is empty
+	 */
+	public long minPriority() {
+		if(size == 0) {
+			throw new IllegalStateException("heap is empty");
+		}
+		return priorities[1];
+	}
+
+	/**
+	 * Returns the payload with the smallest priority; null if the heap is empty.
+	 */
+	@SuppressWarnings("unchecked")
+	public E min() {
+		return size == 0 ? null : (E) payloads[1];
+	}
+
+	/**
+	 * Inserts a payload with the specified priority.
+	 */
+	public void insert(long priority, E payload) {
+		if(size + 1 == priorities.length) {
+			resize(priorities.length * 2);
+		}
+		size++;
+		siftUp(size, priority, payload);
+	}
+
+	/**
+	 * Returns and removes the payload with the smallest priority.
+	 * @return	the payload with the smallest priority; null if the heap is empty
+	 */
+	@SuppressWarnings("unchecked")
+	public E removeMin() {
+		if(size == 0) {
+			return null;
+		}
+		E ret = (E) payloads[1];
+		long lastPriority = priorities[size];
+		Object lastPayload = payloads[size];
+		payloads[size] = null;
+		size--;
+		if(size > 0) {
+			siftDown(1, lastPriority, lastPayload);
+		}
+		if(size < priorities.length / 4 && priorities.length / 2 > MIN_CAPACITY) {
+			resize(priorities.length / 2);
+		}
+		return ret;
+	}
+
+	/**
+	 * Removes every item from the heap.
+	 */
+	public void makeEmpty() {
+		for(int i = 1; i <= size; i++) {
+			payloads[i] = null;
+		}
+		size = 0;
+	}
+
+	/**
+	 * Moves a hole at index up until priority can be stored in it.
+	 */
+	private void siftUp(int index, long priority, Object payload) {
+		while(index > 1 && priority < priorities[index / 2]) {
+			priorities[index] = priorities[index / 2];
+			payloads[index] = payloads[index / 2];
+			index /= 2;
+		}
+		priorities[index] = priority;
+		payloads[index] = payload;
+	}
+
+	/**
+	 * Moves a hole at index down, towards its smaller child, until priority can be stored in
+	 * it.
+	 */
+	private void siftDown(int index, long priority, Object payload) {
+		while(index * 2 <= size) {
+			int child = index * 2;
+			if(child < size && priorities[child + 1] < priorities[child]) {
+				child++;
+			}
+			if(priorities[child] >= priority) {
+				break;
+			}
+			priorities[index] = priorities[child];
+			payloads[index] = payloads[child];
+			index = child;
+		}
+		priorities[index] = priority;
+		payloads[index] = payload;
+	}
+
+	/**
+	 * Copies the heap into new backing arrays of the specified length.
+	 */
+	private void resize(int length) {
+		long[] newPriorities = new long[length];
+		Object[] newPayloads = new Object[length];
+		System.arraycopy(priorities, 0, newPriorities, 0, size + 1);
+		System.arraycopy(payloads, 0, newPayloads, 0, size + 1);
+		priorities = newPriorities;
+		payloads = newPayloads;
+	}
+}
@@ -0,0 +1,141 @@
+package heap;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread-safe relaxed priority queue built from many BinaryHeaps, each guarded by its own lock
+ * (a MultiQueue). insert adds to a randomly chosen heap; removeMin looks at the minimums of two
+ * random heaps and removes the smaller one. Threads rarely contend for the same lock, so
+ * throughput scales with the number of threads, at the price of removeMin returning an item
+ * that is only close to the minimum: its expected rank is O(number of heaps).
+ *
+ * The number of heaps is the relaxation factor times the expected number of threads. Larger
+ * factors lower contention and raise the rank error.
+ * @param <E>	type of items held in the queue
+ */
+public class MultiQueue<E> {
+
+	private final BinaryHeap<E>[] heaps;
+	private final ReentrantLock[] locks;
+	private final AtomicReferenceArray<E> mins; //Minimum of each heap, published after each update
+	private final AtomicInteger size = new AtomicInteger();
+	private final Comparator<? super E> comparator; //null for natural ordering
+
+	/**
+	 * Constructor for an empty queue using natural ordering, with a relaxation factor of 2.
+	 * @param threads	expected number of threads using the queue
+	 */
+	public MultiQueue(int threads) {
+		this(threads, 2, null);
+	}
+
+	/**
+	 * Constructor for an empty queue.
+	 * @param threads		expected number of threads using the queue
+	 * @param relaxation	number of heaps per thread; at least 1
+	 * @param comparator	ordering of the items; null for natural ordering
+	 */
+	public MultiQueue(int threads, int relaxation, Comparator<? super E> comparator) {
+		if(threads < 1 || relaxation < 1) {
+			throw new IllegalArgumentException("threads and relaxation must be positive");
+		}
+		int count = Math.max(2, threads * relaxation);
+		@SuppressWarnings("unchecked")
+		BinaryHeap<E>[] created = new BinaryHeap[count];
+		heaps = created;
+		locks = new ReentrantLock[count];
+		for(int i = 0; i < count; i++) {
+			heaps[i] = new BinaryHeap<E>(comparator);
+			locks[i] = new ReentrantLock();
+		}
+		mins = new AtomicReferenceArray<E>(count);
+		this.comparator = comparator;
+	}
+
+	/**
+	 * Returns the number of items in the queue. The count is exact only while no updates are
+	 * in progress.
+	 */
+	public int size() {
+		return size.get();
+	}
+
+	/**
+	 * Returns true iff the queue has no items.
+	 */
+	public boolean isEmpty() {
+		return size.get() == 0;
+	}
+
+	/**
+	 * Inserts a new item into a randomly chosen heap whose lock is free.
+	 */
+	public void insert(E item) {
+		ThreadLocalRandom rand = ThreadLocalRandom.current();
+		while(true) {
+			int i = rand.nextInt(heaps.length);
+			if(locks[i].tryLock()) {
+				try {
+					heaps[i].insert(item);
+					mins.set(i, heaps[i].min());
+				} finally {
+					locks[i].unlock();
+				}
+				size.incrementAndGet();
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Removes and returns an item close to the minimum: the smaller of the minimums of two
+	 * randomly chosen heaps.
+	 * @return	a near-minimal item, or null if the queue is empty
+	 */
+	public E removeMin() {
+		ThreadLocalRandom rand = ThreadLocalRandom.current();
+		int misses = 0;
+		while(size.get() > 0) {
+			int i;
+			if(misses < heaps.length) {
+				i = rand.nextInt(heaps.length);
+				int j = rand.nextInt(heaps.length);
+				E a = mins.get(i);
+				E b = mins.get(j);
+				if(a == null || (b != null && less(b, a))) {
+					i = j;
+				}
+			} else { //Most heaps look empty; sweep them in order so none is missed
+				i = misses % heaps.length;
+			}
+			if(mins.get(i) != null && locks[i].tryLock()) {
+				try {
+					E ret = heaps[i].removeMin();
+					if(ret != null) {
+						mins.set(i, heaps[i].min());
+						size.decrementAndGet();
+						return ret;
+					}
+				} finally {
+					locks[i].unlock();
+				}
+			}
+			misses++;
+		}
+		return null;
+	}
+
+	/**
+	 * Returns true iff a comes strictly before b in this queue's ordering.
+	 */
+	@SuppressWarnings("unchecked")
+	private boolean less(E a, E b) {
+		if(comparator == null) {
+			return ((Comparable<? super E>) a).compareTo(b) < 0;
+		}
+		return comparator.compare(a, b) < 0;
+	}
+}
@@ -0,0 +1,238 @@
+package heap;
+import java.util.Comparator;
+
+/**
+ * Implementation of a pairing heap: a heap-ordered multiway tree in which every node keeps its
+ * children in a linked list. insert, meld and decreaseKey take O(1) time; removeMin merges the
+ * children of the old root in two passes and takes O(log n) amortized time.
+ * @param <E>	type of items held in the heap
+ */
+public class PairingHeap<E> implements Heap<E> {
+
+	private Handle<E> root;
+	private int size;
+	private final Comparator<? super E> comparator; //null for natural ordering
+
+	/**
+	 * A node of the heap, returned by add() so that its item can later be decreased.
+	 */
+	public static class Handle<E> {
+		E item;
+		Handle<E> child; //Leftmost child
+		Handle<E> sibling; //Next sibling to the right
+		Handle<E> prev; //Previous sibling, or parent if this is the leftmost child
+
+		Handle(E item) {
+			this.item = item;
+		}
+
+		/**
+		 * Returns the item held by this node.
+		 */
+		public E item() {
+			return item;
+		}
+	}
+
+	/**
+	 * Test code.
+	 */
+	public static void main(String[] args) {
+		PairingHeap<Integer> a = new PairingHeap<Integer>();
+		PairingHeap<Integer> b = new PairingHeap<Integer>();
+		Handle<Integer> h = null;
+		for(int i = 0; i < 10; i++) {
+			a.insert(i * 2);
+			h = b.add(i * 2 + 1);
+		}
+		b.decreaseKey(h, -1);
+		a.meld(b);
+		while(!a.isEmpty()) {
+			System.out.print(a.removeMin() + " ");
+		}
+	}
+
+	/**
+	 * Constructor for an empty heap using natural ordering.
+	 */
+	public PairingHeap() {
+		this(null);
+	}
+
+	/**
+	 * Constructor for an empty heap ordered by comparator.
+	 */
+	public PairingHeap(Comparator<? super E> comparator) {
+		this.comparator = comparator;
+	}
+
+	/**
+	 * Returns the size of this heap.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns true iff this heap has no items.
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns the minimum object in the heap.
+	 */
+	public E min() {
+		return root == null ? null : root.item;
+	}
+
+	/**
+	 * Inserts a new item into the heap.
+	 */
+	public void insert(E item) {
+		add(item);
+	}
+
+	/**
+	 * Inserts a new item into the heap.
+	 * @param item	new item to be inserted
+	 * @return		a handle through which the item can be decreased while it is in the heap
+	 */
+	public Handle<E> add(E item) {
+		Handle<E> node = new Handle<E>(item);
+		root = link(root, node);
+		size++;
+		return node;
+	}
+
+	/**
+	 * Moves every item of other into this heap, leaving other empty. If other is also a
+	 * PairingHeap this takes O(1) time, and handles into other remain valid and now refer to
+	 * this heap.
+	 * @param other	heap to meld in; must use a compatible ordering
+	 */
+	@SuppressWarnings("unchecked")
+	public void meld(Heap<? extends E> other) {
+		if(!(other instanceof PairingHeap) || other == this) {
+			Heap.super.meld(other);
+			return;
+		}
+		PairingHeap<E> heap = (PairingHeap<E>)other; //Its items are all Es
+		root = link(root, heap.root);
+		size += heap.size;
+		heap.root = null;
+		heap.size = 0;
+	}
+
+	/**
+	 * Returns and removes the minimum entry in the heap.
+	 * @return	the minimum entry in the heap
+	 */
+	public E removeMin() {
+		if(root == null) {
+			return null;
+		}
+		E ret = root.item;
+		root = mergePairs(root.child);
+		size--;
+		return ret;
+	}
+
+	/**
+	 * Replaces the item of a node with one that does not come after it.
+	 * @param handle	node returned by add(); must still be in this heap
+	 * @param item		new item
+	 * @throws IllegalArgumentException	if item comes after the current item
+	 */
+	public void decreaseKey(Handle<E> handle, E item) {
+		if(less(handle.item, item)) {
+			throw new IllegalArgumentException("new item comes after the current item");
+		}
+		handle.item = item;
+		if(handle == root) {
+			return;
+		}
+		if(handle.prev.child == handle) { //Cut handle and its subtree from the tree
+			handle.prev.child = handle.sibling;
+		} else {
+			handle.prev.sibling = handle.sibling;
+		}
+		if(handle.sibling != null) {
+			handle.sibling.prev = handle.prev;
+		}
+		handle.prev = null;
+		handle.sibling = null;
+		root = link(root, handle);
+	}
+
+	/**
+	 * Removes every item from the heap.
+	 */
+	public void makeEmpty() {
+		root = null;
+		size = 0;
+	}
+
+	/**
+	 * Links two detached trees by making the root with the larger item the leftmost child of
+	 * the other. Returns the root of the combined tree.
+	 */
+	private Handle<E> link(Handle<E> a, Handle<E> b) {
+		if(a == null) return b;
+		if(b == null) return a;
+		if(less(b.item, a.item)) {
+			Handle<E> temp = a;
+			a = b;
+			b = temp;
+		}
+		b.prev = a;
+		b.sibling = a.child;
+		if(a.child != null) {
+			a.child.prev = b;
+		}
+		a.child = b;
+		return a;
+	}
+
+	/**
+	 * Combines a list of sibling trees into one tree: first links them in pairs from left to
+	 * right, then links the pairs into one tree from right to left.
+	 */
+	private Handle<E> mergePairs(Handle<E> first) {
+		Handle<E> pairs = null; //Linked pairs, most recent first, chained through sibling
+		while(first != null) {
+			Handle<E> a = first;
+			Handle<E> b = a.sibling;
+			first = b == null ? null : b.sibling;
+			a.sibling = null;
+			a.prev = null;
+			if(b != null) {
+				b.sibling = null;
+				b.prev = null;
+				a = link(a, b);
+			}
+			a.sibling = pairs;
+			pairs = a;
+		}
+		Handle<E> result = null;
+		while(pairs != null) {
+			Handle<E> next = pairs.sibling;
+			pairs.sibling = null;
+			result = link(result, pairs);
+			pairs = next;
+		}
+		return result;
+	}
+
+	/**
+	 * Returns true iff a comes strictly before b in this heap's ordering.
+	 */
+	@SuppressWarnings("unchecked")
+	private boolean less(E a, E b) {
+		if(comparator == null) {
+			return ((Comparable<? super E>) a).compareTo(b) < 0;
+		}
+		return comparator.compare(a, b) < 0;
+	}
+}
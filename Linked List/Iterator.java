@@ -0,0 +1,26 @@
+package list;
+
+/**
+ * Iterator over the items of a list, in order.
+ * @author 		Kushal Ranjan
+ * @param <E>	type of items iterated over
+ */
+public interface Iterator<E> {
+
+	/**
+	 * Returns true if there are items left to iterate over.
+	 */
+	boolean hasNext();
+
+	/**
+	 * Returns the next item.
+	 * @throws java.util.NoSuchElementException	if there are no items left
+	 */
+	E next();
+
+	/**
+	 * Removes the item most recently returned by next() from the underlying list.
+	 * @throws IllegalStateException	if next() has not been called since the last remove()
+	 */
+	void remove();
+}
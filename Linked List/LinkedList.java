@@ -0,0 +1,190 @@
+package list;
+import java.util.NoSuchElementException;
+
+/**
+ * Implementation of a singly linked list with a tail pointer, so that items can be added at
+ * either end in O(1) time.
+ * @author 		Kushal Ranjan
+ * @param <E>	type of items held in the list
+ */
+public class LinkedList<E> {
+
+	private ListNode<E> head;
+	private ListNode<E> tail;
+	private int size;
+
+	/**
+	 * Node holding one item of the list.
+	 */
+	private static class ListNode<E> {
+		E item;
+		ListNode<E> next;
+
+		ListNode(E item) {
+			this.item = item;
+		}
+	}
+
+	/**
+	 * Test code.
+	 */
+	public static void main(String[] args) {
+		LinkedList<String> list = new LinkedList<String>();
+		list.add("name");
+		list.add("is");
+		list.addFirst("my");
+		list.addFirst("Hello");
+		list.add("Kushal");
+		System.out.println(list + " " + list.size());
+		list.remove(2);
+		Iterator<String> it = list.iterator();
+		it.next();
+		it.remove();
+		System.out.println(list + " " + list.size() + " " + list.get(1));
+	}
+
+	/**
+	 * Returns the number of items in this list.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Tests if this list is empty.
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Adds an item to the end of this list.
+	 */
+	public void add(E item) {
+		ListNode<E> node = new ListNode<E>(item);
+		if(tail == null) {
+			head = node;
+		} else {
+			tail.next = node;
+		}
+		tail = node;
+		size++;
+	}
+
+	/**
+	 * Adds an item to the front of this list.
+	 */
+	public void addFirst(E item) {
+		ListNode<E> node = new ListNode<E>(item);
+		node.next = head;
+		head = node;
+		if(tail == null) {
+			tail = node;
+		}
+		size++;
+	}
+
+	/**
+	 * Returns the item at the specified position.
+	 * @param index	position of the item, from 0 to size() - 1
+	 * @throws IndexOutOfBoundsException	if index is out of range
+	 */
+	public E get(int index) {
+		return nodeAt(index).item;
+	}
+
+	/**
+	 * Removes and returns the item at the specified position.
+	 * @param index	position of the item, from 0 to size() - 1
+	 * @throws IndexOutOfBoundsException	if index is out of range
+	 */
+	public E remove(int index) {
+		if(index == 0) {
+			checkIndex(index);
+			return unlinkAfter(null);
+		}
+		return unlinkAfter(nodeAt(index - 1));
+	}
+
+	/**
+	 * Returns an iterator over the items of this list, in order. Its remove() takes O(1)
+	 * time.
+	 */
+	public Iterator<E> iterator() {
+		return new Iterator<E>() {
+			private ListNode<E> prev; //Node before the one last returned; null if that was head
+			private ListNode<E> last; //Node last returned; null if removed or not yet started
+			private ListNode<E> next = head;
+
+			public boolean hasNext() {
+				return next != null;
+			}
+
+			public E next() {
+				if(next == null) {
+					throw new NoSuchElementException();
+				}
+				if(last != null) {
+					prev = last;
+				}
+				last = next;
+				next = next.next;
+				return last.item;
+			}
+
+			public void remove() {
+				if(last == null) {
+					throw new IllegalStateException();
+				}
+				unlinkAfter(prev);
+				last = null;
+			}
+		};
+	}
+
+	/**
+	 * Returns a String representation of this list: its items in order, in brackets.
+	 */
+	public String toString() {
+		StringBuilder out = new StringBuilder("[");
+		for(ListNode<E> node = head; node != null; node = node.next) {
+			out.append(node.item);
+			if(node.next != null) {
+				out.append(", ");
+			}
+		}
+		return out.append("]").toString();
+	}
+
+	private void checkIndex(int index) {
+		if(index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+		}
+	}
+
+	private ListNode<E> nodeAt(int index) {
+		checkIndex(index);
+		ListNode<E> node = head;
+		for(int i = 0; i < index; i++) {
+			node = node.next;
+		}
+		return node;
+	}
+
+	/**
+	 * Removes the node after prev, or the head if prev is null, and returns its item.
+	 */
+	private E unlinkAfter(ListNode<E> prev) {
+		ListNode<E> node = prev == null ? head : prev.next;
+		if(prev == null) {
+			head = node.next;
+		} else {
+			prev.next = node.next;
+		}
+		if(node == tail) {
+			tail = prev;
+		}
+		size--;
+		return node.item;
+	}
+}